@@ -21,6 +21,8 @@ import com.google.gson.JsonElement;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
@@ -47,11 +49,91 @@ import org.yangcentral.yangkit.utils.xml.XmlWriter;
  * yang comparator plugin.
  */
 public class YangComparatorPlugin implements YangCompilerPlugin {
+    private final Map<String, YangSchemaContext> baselines = new ConcurrentHashMap<>();
+
     @Override
     public YangCompilerPluginParameter getParameter(String name, JsonElement value) {
         return new YangComparatorPluginParameter(name,value);
     }
 
+    /**
+     * get the key of baseline schema context, it consists of the raw values of old-yang and settings parameters.
+     *
+     * @param list parameters
+     * @return the key, or null if old-yang is not present
+     */
+    private static String getBaselineKey(List<YangCompilerPluginParameter> list) {
+        String oldYang = null;
+        String settings = "";
+        for (YangCompilerPluginParameter parameter : list) {
+            if (!(parameter instanceof YangComparatorPluginParameter)) {
+                continue;
+            }
+            JsonElement value = ((YangComparatorPluginParameter) parameter).getJsonValue();
+            if (parameter.getName().equals("old-yang")) {
+                oldYang = value.toString();
+            } else if (parameter.getName().equals("settings")) {
+                settings = value.toString();
+            }
+        }
+        return oldYang == null ? null : oldYang + "|" + settings;
+    }
+
+    private static YangSchemaContext buildBaseline(List<Source> sources, Settings settings)
+            throws YangCompilerException {
+        YangSchemaContext oldSchemaContext = YangCompilerUtil.buildSchemaContext(sources, settings);
+        ValidatorResult oldResult = oldSchemaContext.validate();
+        if (!oldResult.isOk()) {
+            throw new YangCompilerException("fail to validate the schema context"
+                    + ".\n"
+                    + oldResult);
+        }
+        return oldSchemaContext;
+    }
+
+    /**
+     * build and validate the baseline schema context from old-yang sources, it doesn't depend on
+     * the new schema context, so it overlaps with parsing and validating the new schema context.
+     * The baseline is kept until run uses it, it's dropped if the prepare phase is cancelled.
+     *
+     * @param yangCompiler yang compiler instance
+     * @param list         parameters
+     * @throws YangCompilerException if the baseline schema context is invalid
+     */
+    @Override
+    public void prepare(YangCompiler yangCompiler, List<YangCompilerPluginParameter> list)
+            throws YangCompilerException {
+        String key = getBaselineKey(list);
+        if (key == null || baselines.containsKey(key)) {
+            //missing old-yang will be reported by run
+            return;
+        }
+        List<Source> sources = null;
+        Settings settings = yangCompiler.getSettings();
+        for (YangCompilerPluginParameter parameter : list) {
+            if (parameter.getName().equals("old-yang")) {
+                sources = (List<Source>) parameter.getValue();
+            } else if (parameter.getName().equals("settings")) {
+                String settingsPath = (String) parameter.getValue();
+                try {
+                    settings = Settings.parse(FileUtil.readFile2String(settingsPath));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        YangSchemaContext baseline = buildBaseline(sources, settings);
+        if (Thread.currentThread().isInterrupted()) {
+            //the outputs are restored from cache, run will not be called
+            return;
+        }
+        baselines.put(key, baseline);
+    }
+
+    /**
+     * compare the schema context with the baseline. It's not a visitor plugin: it compares the statements of
+     * two schema contexts, which is not a walk of the schema tree being compiled.
+     */
     @Override
     public void run(YangSchemaContext yangSchemaContext, YangCompiler yangCompiler,
                     List<YangCompilerPluginParameter> list) throws YangCompilerException {
@@ -89,7 +171,8 @@ public class YangComparatorPlugin implements YangCompilerPlugin {
         if (resultPath == null) {
             throw new YangCompilerException("missing mandatory parameter:result");
         }
-        File outputFile = new File(resultPath);
+        //the result of every cluster is written into its own directory in partitioned compilation
+        File outputFile = yangCompiler.getOutputSink().resolve(new File(resultPath));
         if (!outputFile.exists()) {
             if (outputFile.getParentFile() != null && !outputFile.getParentFile().exists()) {
                 outputFile.getParentFile().mkdirs();
@@ -100,12 +183,11 @@ public class YangComparatorPlugin implements YangCompilerPlugin {
                 throw new RuntimeException(e);
             }
         }
-        YangSchemaContext oldSchemaContext = YangCompilerUtil.buildSchemaContext(sources, settings);
-        ValidatorResult oldResult = oldSchemaContext.validate();
-        if (!oldResult.isOk()) {
-            throw new YangCompilerException("fail to validate the schema context"
-                    + ".\n"
-                    + oldResult);
+        String baselineKey = getBaselineKey(list);
+        //the baseline is used only once, it's not kept for the lifetime of plugin
+        YangSchemaContext oldSchemaContext = baselineKey == null ? null : baselines.remove(baselineKey);
+        if (oldSchemaContext == null) {
+            oldSchemaContext = buildBaseline(sources, settings);
         }
         //System.out.println(oldSchemaContext.getValidateResult());
         YangComparator yangComparator = new YangComparator(oldSchemaContext, yangSchemaContext);
@@ -117,7 +199,7 @@ public class YangComparatorPlugin implements YangCompilerPlugin {
             }
             Document document = yangComparator.outputXmlCompareResult(results, needCompatible, compareType);
             //System.out.println(XmlWriter.transDom4jDoc2String(document));
-            XmlWriter.writeDom4jDoc(document, resultPath);
+            XmlWriter.writeDom4jDoc(document, outputFile.getPath());
         } catch (DocumentException e) {
             throw new RuntimeException(e);
         } catch (RuntimeException e) {
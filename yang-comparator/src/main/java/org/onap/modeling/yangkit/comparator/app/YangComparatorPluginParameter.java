@@ -36,6 +36,15 @@ public class YangComparatorPluginParameter implements YangCompilerPluginParamete
         return name;
     }
 
+    /**
+     * get the raw json value of parameter.
+     *
+     * @return json value
+     */
+    public JsonElement getJsonValue() {
+        return value;
+    }
+
     @Override
     public Object getValue() throws YangCompilerException {
         if (!name.equals("old-yang") && !name.equals("settings")
@@ -0,0 +1,36 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+ */
+
+package org.onap.modeling.yangkit.comparator.app;
+
+import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPlugin;
+import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPluginProvider;
+
+
+/**
+ * the provider of yang comparator plugin.
+ */
+public class YangComparatorPluginProvider implements YangCompilerPluginProvider {
+    @Override
+    public String getName() {
+        return "yang_comparator";
+    }
+
+    @Override
+    public YangCompilerPlugin create() {
+        return new YangComparatorPlugin();
+    }
+}
@@ -0,0 +1,306 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.onap.modeling.yangkit.catalog.ModuleInfo;
+import org.onap.modeling.yangkit.compiler.util.YangCompilerUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
+import org.yangcentral.yangkit.model.api.stmt.Module;
+import org.yangcentral.yangkit.parser.YangYinParser;
+
+
+/**
+ * a source which parses yang and yin files straight from archives without extraction, zip(.zip/.jar),
+ * tar(.tar) and gzipped tar(.tar.gz/.tgz) are supported. The entries of zip are read ahead on the shared io executor
+ * (zip supports random access), at most twice the io concurrency of settings are in flight, and they're parsed
+ * in the order of entries, every content is dropped after it's parsed. The entries of tar are streamed into parser
+ * one by one. The source of a module parsed from
+ * archive is {archive}!/{entry}.
+ */
+public class ArchiveSource implements Source {
+    public static final String SEPARATOR = "!/";
+
+    private final List<String> archives;
+    private final Set<String> entries;
+    private final boolean importOnly;
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveSource.class);
+
+    public ArchiveSource(List<String> archives) {
+        this(archives, null);
+    }
+
+    /**
+     * the constructor.
+     *
+     * @param archives archive paths
+     * @param entries  the names of entries to be parsed, null means all yang and yin files are parsed
+     */
+    public ArchiveSource(List<String> archives, Set<String> entries) {
+        this(archives, entries, false);
+    }
+
+    /**
+     * the constructor.
+     *
+     * @param archives   archive paths
+     * @param entries    the names of entries to be parsed, null means all yang and yin files are parsed
+     * @param importOnly whether the modules of entries are parsed as import-only modules
+     */
+    public ArchiveSource(List<String> archives, Set<String> entries, boolean importOnly) {
+        this.archives = archives;
+        this.entries = entries;
+        this.importOnly = importOnly;
+    }
+
+    public List<String> getArchives() {
+        return archives;
+    }
+
+    /**
+     * get the archive path from the source of module.
+     *
+     * @param source the source of module
+     * @return archive path, null if the source is not an archive entry
+     */
+    public static String getArchive(String source) {
+        if (source == null) {
+            return null;
+        }
+        int pos = source.indexOf(SEPARATOR);
+        return pos == -1 ? null : source.substring(0, pos);
+    }
+
+    /**
+     * get the entry name from the source of module.
+     *
+     * @param source the source of module
+     * @return entry name, null if the source is not an archive entry
+     */
+    public static String getEntry(String source) {
+        if (source == null) {
+            return null;
+        }
+        int pos = source.indexOf(SEPARATOR);
+        return pos == -1 ? null : source.substring(pos + SEPARATOR.length());
+    }
+
+    private boolean accept(String name) {
+        if (name.endsWith("/")) {
+            return false;
+        }
+        if (!name.endsWith(".yang") && !name.endsWith(".yin")) {
+            return false;
+        }
+        String fileName = name.substring(name.lastIndexOf('/') + 1);
+        if (fileName.startsWith(".")) {
+            return false;
+        }
+        return entries == null || entries.contains(name);
+    }
+
+    private static String normalize(String name) {
+        while (name.startsWith("./")) {
+            name = name.substring(2);
+        }
+        return name;
+    }
+
+    private YangSchemaContext parse(String archive, String name, InputStream in,
+                                    YangSchemaContext schemaContext) throws YangCompilerException {
+        try {
+            return YangYinParser.parse(in, archive + SEPARATOR + name, name.endsWith(".yang"), importOnly,
+                    schemaContext);
+        } catch (Exception e) {
+            throw new YangCompilerException(e.getMessage());
+        }
+    }
+
+    private static byte[] read(ZipFile zipFile, ZipEntry entry) {
+        int size = entry.getSize() > 0 ? (int) entry.getSize() : 8192;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private YangSchemaContext buildZip(String archive, Settings settings, YangSchemaContext schemaContext)
+            throws YangCompilerException {
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            List<ZipEntry> zipEntries = new ArrayList<>();
+            Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+            while (enumeration.hasMoreElements()) {
+                ZipEntry entry = enumeration.nextElement();
+                if (!entry.isDirectory() && accept(normalize(entry.getName()))) {
+                    zipEntries.add(entry);
+                }
+            }
+            ExecutorService executor = settings == null ? null : settings.getIoExecutor();
+            if (executor == null) {
+                for (ZipEntry entry : zipEntries) {
+                    schemaContext = parse(archive, normalize(entry.getName()),
+                            new ByteArrayInputStream(read(zipFile, entry)), schemaContext);
+                }
+                return schemaContext;
+            }
+            //read ahead in a bounded window, parse in the order of entries
+            int window = settings.getIoConcurrency() * 2;
+            Deque<Future<byte[]>> reads = new ArrayDeque<>();
+            int next = 0;
+            try {
+                for (ZipEntry zipEntry : zipEntries) {
+                    while (next < zipEntries.size() && reads.size() < window) {
+                        ZipEntry entry = zipEntries.get(next++);
+                        reads.add(executor.submit(() -> read(zipFile, entry)));
+                    }
+                    schemaContext = parse(archive, normalize(zipEntry.getName()),
+                            new ByteArrayInputStream(await(reads.poll())), schemaContext);
+                }
+            } finally {
+                //the zip file is closed only after the reads in flight are cancelled or finished
+                for (Future<byte[]> read : reads) {
+                    read.cancel(false);
+                }
+                for (Future<byte[]> read : reads) {
+                    if (!read.isCancelled()) {
+                        try {
+                            read.get();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } catch (ExecutionException e) {
+                            //ignore, parsing has failed already
+                        }
+                    }
+                }
+            }
+            return schemaContext;
+        } catch (IOException | UncheckedIOException e) {
+            throw new YangCompilerException("fail to read archive:" + archive + " " + e.getMessage());
+        }
+    }
+
+    private static byte[] await(Future<byte[]> read) throws IOException, YangCompilerException {
+        try {
+            return read.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new YangCompilerException("interrupted when reading archive.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private YangSchemaContext buildTar(String archive, boolean gzip, YangSchemaContext schemaContext)
+            throws YangCompilerException {
+        try (InputStream in = gzip
+                ? new BufferedInputStream(new GZIPInputStream(new FileInputStream(archive), 65536))
+                : new BufferedInputStream(new FileInputStream(archive), 65536)) {
+            TarReader tarReader = new TarReader(in);
+            String name;
+            while ((name = tarReader.nextEntry()) != null) {
+                name = normalize(name);
+                if (!accept(name)) {
+                    continue;
+                }
+                schemaContext = parse(archive, name, tarReader.getEntryStream(), schemaContext);
+            }
+            return schemaContext;
+        } catch (IOException e) {
+            throw new YangCompilerException("fail to read archive:" + archive + " " + e.getMessage());
+        }
+    }
+
+    @Override
+    public YangSchemaContext buildSource(Settings settings, YangSchemaContext yangSchemaContext)
+            throws YangCompilerException {
+        return buildSource(settings, yangSchemaContext, false);
+    }
+
+    @Override
+    public YangSchemaContext buildSource(Settings settings, YangSchemaContext schemaContext, boolean withDependencies)
+            throws YangCompilerException {
+        for (String archive : archives) {
+            logger.info("start to build schema context for archive:" + archive);
+            String name = new File(archive).getName().toLowerCase();
+            if (name.endsWith(".zip") || name.endsWith(".jar")) {
+                schemaContext = buildZip(archive, settings, schemaContext);
+            } else if (name.endsWith(".tar")) {
+                schemaContext = buildTar(archive, false, schemaContext);
+            } else if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+                schemaContext = buildTar(archive, true, schemaContext);
+            } else {
+                throw new YangCompilerException("unsupported archive type:" + archive);
+            }
+            if (withDependencies && schemaContext != null) {
+                logger.info("start to build dependencies for archive:" + archive);
+                for (Module module : new ArrayList<>(schemaContext.getModules())) {
+                    if (!archive.equals(getArchive(module.getElementPosition().getSource()))) {
+                        continue;
+                    }
+                    List<ModuleInfo> dependencies = YangCompilerUtil.getDependencies(module);
+                    if (!dependencies.isEmpty()) {
+                        List<ModuleInfo> extraDependencies = new ArrayList<>();
+                        for (ModuleInfo dependency : dependencies) {
+                            if (schemaContext.getModule(dependency.getName(), dependency.getRevision())
+                                    .isPresent()) {
+                                continue;
+                            }
+                            extraDependencies.add(dependency);
+                        }
+                        ModuleSource extraDependenciesSource = new ModuleSource(extraDependencies, true);
+                        schemaContext = extraDependenciesSource.buildSource(settings, schemaContext, true);
+                    }
+                }
+                logger.info("end to build dependencies for archive:" + archive);
+            }
+            logger.info("end to build schema context for archive:" + archive);
+        }
+        return schemaContext;
+    }
+}
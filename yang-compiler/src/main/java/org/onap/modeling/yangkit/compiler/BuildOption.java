@@ -35,6 +35,20 @@ public class BuildOption {
 
     private String settings;
 
+    private boolean partition;
+
+    private String snapshotOutput;
+
+    private boolean lean;
+
+    private boolean pluginCache;
+
+    private String outputArchive;
+
+    private String diagnostics;
+
+    private String validation = "serial";
+
     /**
      * the constructor.
      */
@@ -94,6 +108,99 @@ public class BuildOption {
         this.settings = settings;
     }
 
+    /**
+     * whether compile the independent module clusters separately.
+     *
+     * @return true if partitioned compilation is enabled
+     */
+    public boolean isPartition() {
+        return partition;
+    }
+
+    public void setPartition(boolean partition) {
+        this.partition = partition;
+    }
+
+    /**
+     * get the path of schema snapshot which will be written after the schema context is validated.
+     *
+     * @return the path of schema snapshot, null if no snapshot is required
+     */
+    public String getSnapshotOutput() {
+        return snapshotOutput;
+    }
+
+    public void setSnapshotOutput(String snapshotOutput) {
+        this.snapshotOutput = snapshotOutput;
+    }
+
+    /**
+     * whether release the documentation text and raw parse results which are not needed by plugins
+     * after the schema context is validated.
+     *
+     * @return true if lean mode is enabled
+     */
+    public boolean isLean() {
+        return lean;
+    }
+
+    public void setLean(boolean lean) {
+        this.lean = lean;
+    }
+
+    /**
+     * whether restore the outputs of cacheable plugins from the local cache when their cache keys are not changed.
+     *
+     * @return true if plugin cache is enabled
+     */
+    public boolean isPluginCache() {
+        return pluginCache;
+    }
+
+    public void setPluginCache(boolean pluginCache) {
+        this.pluginCache = pluginCache;
+    }
+
+    /**
+     * get the path of archive which the outputs of plugins are written into.
+     *
+     * @return the path of archive, null if the outputs are written to file system
+     */
+    public String getOutputArchive() {
+        return outputArchive;
+    }
+
+    public void setOutputArchive(String outputArchive) {
+        this.outputArchive = outputArchive;
+    }
+
+    /**
+     * get the path of diagnostics file which validation records are streamed into.
+     *
+     * @return the path of diagnostics file, null if the records are logged
+     */
+    public String getDiagnostics() {
+        return diagnostics;
+    }
+
+    public void setDiagnostics(String diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * get the mode of validation, serial(validate all modules in one schema context) or per-module(validate
+     * every main module in its own schema context, in the order of dependency).
+     *
+     * @return the mode of validation
+     */
+    public String getValidation() {
+        return validation;
+    }
+
+    public void setValidation(String validation) {
+        this.validation = validation;
+    }
+
     /**
      * parse the sources.
      * @param yangElement yang element
@@ -126,6 +233,16 @@ public class BuildOption {
             FileSource fileSource = new FileSource(files);
             sources.add(fileSource);
         }
+        JsonElement archivesElement = yang.get("archive");
+        if (archivesElement != null) {
+            JsonArray archiveArray = archivesElement.getAsJsonArray();
+            List<String> archives = new ArrayList<>();
+            for (JsonElement archiveElement : archiveArray.asList()) {
+                archives.add(archiveElement.getAsString());
+            }
+            ArchiveSource archiveSource = new ArchiveSource(archives);
+            sources.add(archiveSource);
+        }
         JsonElement modulesElement = yang.get("module");
         if (modulesElement != null) {
             JsonArray moduleArray = modulesElement.getAsJsonArray();
@@ -150,6 +267,16 @@ public class BuildOption {
             ModuleSource moduleSource = new ModuleSource(moduleInfos);
             sources.add(moduleSource);
         }
+        JsonElement snapshotsElement = yang.get("snapshot");
+        if (snapshotsElement != null) {
+            JsonArray snapshotArray = snapshotsElement.getAsJsonArray();
+            List<String> snapshots = new ArrayList<>();
+            for (JsonElement snapshotElement : snapshotArray.asList()) {
+                snapshots.add(snapshotElement.getAsString());
+            }
+            SnapshotSource snapshotSource = new SnapshotSource(snapshots);
+            sources.add(snapshotSource);
+        }
         return sources;
     }
 
@@ -171,6 +298,34 @@ public class BuildOption {
         if (settingsElement != null) {
             buildOption.setSettings(settingsElement.getAsString());
         }
+        JsonElement partitionElement = jsonObject.get("partition");
+        if (partitionElement != null) {
+            buildOption.setPartition(partitionElement.getAsBoolean());
+        }
+        JsonElement snapshotOutputElement = jsonObject.get("snapshot-output");
+        if (snapshotOutputElement != null) {
+            buildOption.setSnapshotOutput(snapshotOutputElement.getAsString());
+        }
+        JsonElement leanElement = jsonObject.get("lean");
+        if (leanElement != null) {
+            buildOption.setLean(leanElement.getAsBoolean());
+        }
+        JsonElement pluginCacheElement = jsonObject.get("plugin-cache");
+        if (pluginCacheElement != null) {
+            buildOption.setPluginCache(pluginCacheElement.getAsBoolean());
+        }
+        JsonElement outputArchiveElement = jsonObject.get("output-archive");
+        if (outputArchiveElement != null) {
+            buildOption.setOutputArchive(outputArchiveElement.getAsString());
+        }
+        JsonElement diagnosticsElement = jsonObject.get("diagnostics");
+        if (diagnosticsElement != null) {
+            buildOption.setDiagnostics(diagnosticsElement.getAsString());
+        }
+        JsonElement validationElement = jsonObject.get("validation");
+        if (validationElement != null) {
+            buildOption.setValidation(validationElement.getAsString());
+        }
         JsonElement pluginsElement = jsonObject.get("plugin");
         if (pluginsElement != null) {
             JsonArray plugins = pluginsElement.getAsJsonArray();
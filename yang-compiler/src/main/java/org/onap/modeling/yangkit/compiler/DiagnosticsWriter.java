@@ -0,0 +1,372 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.yangcentral.yangkit.base.Position;
+import org.yangcentral.yangkit.common.api.exception.Severity;
+import org.yangcentral.yangkit.common.api.validate.ValidatorRecord;
+import org.yangcentral.yangkit.common.api.validate.ValidatorResult;
+import org.yangcentral.yangkit.model.api.stmt.Module;
+import org.yangcentral.yangkit.model.api.stmt.YangStatement;
+
+
+/**
+ * a streaming writer of validation diagnostics. The records of a validator result are written after validate()
+ * has returned the result, not while they are produced, and they are written through the buffer of the underlying
+ * writer, which is flushed when it's full and when the writer is closed. JSON lines(one json object per record,
+ * followed by a summary line) and SARIF 2.1.0 are supported. The number of records is indexed by module and
+ * severity, and written at the end.
+ */
+public abstract class DiagnosticsWriter implements Closeable {
+    protected static final Gson GSON = new Gson();
+
+    private final Map<String, Map<String, Integer>> index = new TreeMap<>();
+    private int errors;
+
+    /**
+     * write a record.
+     *
+     * @param module module name of the bad element, null if unknown
+     * @param record validator record
+     * @throws IOException io exception
+     */
+    protected abstract void writeRecord(String module, ValidatorRecord<?, ?> record) throws IOException;
+
+    /**
+     * write the summary and close the writer.
+     *
+     * @param summary the index of records by module and severity
+     * @throws IOException io exception
+     */
+    protected abstract void finish(JsonObject summary) throws IOException;
+
+    /**
+     * open a diagnostics writer.
+     *
+     * @param out    the writer which diagnostics are written to
+     * @param format jsonl or sarif
+     * @return diagnostics writer
+     * @throws IOException if the format is not supported
+     */
+    public static DiagnosticsWriter open(Writer out, String format) throws IOException {
+        if ("jsonl".equals(format)) {
+            return new JsonLinesWriter(out);
+        }
+        if ("sarif".equals(format)) {
+            return new SarifWriter(out);
+        }
+        throw new IOException("unsupported diagnostics format:" + format);
+    }
+
+    /**
+     * get the format of diagnostics file by its extension, .sarif and .sarif.json are SARIF, others are json lines.
+     *
+     * @param fileName file name
+     * @return sarif or jsonl
+     */
+    public static String getFormat(String fileName) {
+        String name = fileName.toLowerCase();
+        if (name.endsWith(".sarif") || name.endsWith(".sarif.json")) {
+            return "sarif";
+        }
+        return "jsonl";
+    }
+
+    /**
+     * build a set of modules for filtering records, the membership check is by identity.
+     *
+     * @param modules modules
+     * @return the set of modules
+     */
+    public static Set<Module> toModuleSet(Collection<Module> modules) {
+        Set<Module> moduleSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        moduleSet.addAll(modules);
+        return moduleSet;
+    }
+
+    /**
+     * get the module which the bad element of record belongs to.
+     *
+     * @param record validator record
+     * @return module, null if the bad element is not a yang statement
+     */
+    public static Module getModule(ValidatorRecord<?, ?> record) {
+        if (!(record.getBadElement() instanceof YangStatement)) {
+            return null;
+        }
+        YangStatement yangStatement = (YangStatement) record.getBadElement();
+        if (yangStatement.getContext() == null) {
+            return null;
+        }
+        return yangStatement.getContext().getCurModule();
+    }
+
+    /**
+     * whether a record is accepted by module filter.
+     *
+     * @param record  validator record
+     * @param modules the set of modules, null means all records are accepted
+     * @return true if accepted
+     */
+    public static boolean accept(ValidatorRecord<?, ?> record, Set<Module> modules) {
+        if (modules == null) {
+            return true;
+        }
+        Module module = getModule(record);
+        return module != null && modules.contains(module);
+    }
+
+    /**
+     * write the records of validator result which are accepted by module filter.
+     *
+     * @param validatorResult validator result
+     * @param modules         the set of modules, null means all records are written
+     * @return the number of records with error severity which are written
+     * @throws IOException io exception
+     */
+    public synchronized int write(ValidatorResult validatorResult, Set<Module> modules) throws IOException {
+        int count = 0;
+        for (ValidatorRecord<?, ?> record : validatorResult.getRecords()) {
+            if (!accept(record, modules)) {
+                continue;
+            }
+            Module module = getModule(record);
+            String moduleName = module == null ? null : module.getArgStr();
+            writeRecord(moduleName, record);
+            String severity = getSeverity(record);
+            Map<String, Integer> counts = index.computeIfAbsent(moduleName == null ? "" : moduleName,
+                k -> new TreeMap<>());
+            counts.merge(severity, 1, Integer::sum);
+            if (record.getSeverity() == Severity.ERROR) {
+                count++;
+            }
+        }
+        errors += count;
+        return count;
+    }
+
+    /**
+     * get the number of records written, by module and severity.
+     *
+     * @param module   module name, empty for the records which don't belong to any module
+     * @param severity severity, e.g. error, warning
+     * @return the number of records
+     */
+    public synchronized int getCount(String module, String severity) {
+        Map<String, Integer> counts = index.get(module);
+        if (counts == null || !counts.containsKey(severity)) {
+            return 0;
+        }
+        return counts.get(severity);
+    }
+
+    /**
+     * get the number of records with error severity written.
+     *
+     * @return the number of errors
+     */
+    public synchronized int getErrorCount() {
+        return errors;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        JsonObject summary = new JsonObject();
+        for (Map.Entry<String, Map<String, Integer>> entry : index.entrySet()) {
+            JsonObject counts = new JsonObject();
+            for (Map.Entry<String, Integer> count : entry.getValue().entrySet()) {
+                counts.addProperty(count.getKey(), count.getValue());
+            }
+            summary.add(entry.getKey(), counts);
+        }
+        finish(summary);
+    }
+
+    protected static String getSeverity(ValidatorRecord<?, ?> record) {
+        return String.valueOf(record.getSeverity()).toLowerCase();
+    }
+
+    protected static String getMessage(ValidatorRecord<?, ?> record) {
+        return record.getErrorMsg() == null ? null : record.getErrorMsg().getMessage();
+    }
+
+    protected static Position getPosition(ValidatorRecord<?, ?> record) {
+        if (!(record.getBadElement() instanceof YangStatement)) {
+            return null;
+        }
+        return ((YangStatement) record.getBadElement()).getElementPosition();
+    }
+
+    protected static JsonObject toJson(String module, ValidatorRecord<?, ?> record) {
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty("module", module);
+        jsonObject.addProperty("severity", getSeverity(record));
+        jsonObject.addProperty("tag", record.getErrorTag() == null ? null : record.getErrorTag().toString());
+        jsonObject.addProperty("path", record.getErrorPath() == null ? null : record.getErrorPath().toString());
+        jsonObject.addProperty("message", getMessage(record));
+        Position position = getPosition(record);
+        if (position != null) {
+            jsonObject.addProperty("source", position.getSource());
+            if (position.getLocation() != null) {
+                jsonObject.addProperty("location", String.valueOf(position.getLocation().getLocation()));
+            }
+        }
+        return jsonObject;
+    }
+
+    private static class JsonLinesWriter extends DiagnosticsWriter {
+        private final Writer out;
+
+        JsonLinesWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        protected void writeRecord(String module, ValidatorRecord<?, ?> record) throws IOException {
+            out.write(toJson(module, record).toString());
+            out.write('\n');
+        }
+
+        @Override
+        protected void finish(JsonObject summary) throws IOException {
+            JsonObject jsonObject = new JsonObject();
+            jsonObject.addProperty("errors", getErrorCount());
+            jsonObject.add("summary", summary);
+            out.write(jsonObject.toString());
+            out.write('\n');
+            out.close();
+        }
+    }
+
+    private static class SarifWriter extends DiagnosticsWriter {
+        private final JsonWriter jsonWriter;
+
+        SarifWriter(Writer out) throws IOException {
+            jsonWriter = new JsonWriter(out);
+            jsonWriter.beginObject();
+            jsonWriter.name("$schema").value("https://json.schemastore.org/sarif-2.1.0.json");
+            jsonWriter.name("version").value("2.1.0");
+            jsonWriter.name("runs").beginArray().beginObject();
+            JsonObject driver = new JsonObject();
+            driver.addProperty("name", "yang-compiler");
+            JsonObject tool = new JsonObject();
+            tool.add("driver", driver);
+            jsonWriter.name("tool");
+            GSON.toJson(tool, jsonWriter);
+            jsonWriter.name("results").beginArray();
+        }
+
+        private static String getLevel(ValidatorRecord<?, ?> record) {
+            if (record.getSeverity() == Severity.ERROR) {
+                return "error";
+            }
+            if (record.getSeverity() == Severity.WARNING) {
+                return "warning";
+            }
+            return "note";
+        }
+
+        /**
+         * get the start line from location, the location is line:column.
+         */
+        private static int getStartLine(Position position) {
+            if (position == null || position.getLocation() == null) {
+                return 0;
+            }
+            String location = String.valueOf(position.getLocation().getLocation());
+            int line = 0;
+            for (int i = 0; i < location.length() && Character.isDigit(location.charAt(i)); i++) {
+                line = line * 10 + (location.charAt(i) - '0');
+            }
+            return line;
+        }
+
+        @Override
+        protected void writeRecord(String module, ValidatorRecord<?, ?> record) throws IOException {
+            JsonObject result = new JsonObject();
+            if (record.getErrorTag() != null) {
+                result.addProperty("ruleId", record.getErrorTag().toString());
+            }
+            result.addProperty("level", getLevel(record));
+            JsonObject message = new JsonObject();
+            String text = getMessage(record);
+            message.addProperty("text", text == null ? String.valueOf(record.getErrorTag()) : text);
+            result.add("message", message);
+            JsonObject location = new JsonObject();
+            Position position = getPosition(record);
+            if (position != null && position.getSource() != null) {
+                JsonObject artifactLocation = new JsonObject();
+                artifactLocation.addProperty("uri", position.getSource());
+                JsonObject physicalLocation = new JsonObject();
+                physicalLocation.add("artifactLocation", artifactLocation);
+                int line = getStartLine(position);
+                if (line > 0) {
+                    JsonObject region = new JsonObject();
+                    region.addProperty("startLine", line);
+                    physicalLocation.add("region", region);
+                }
+                location.add("physicalLocation", physicalLocation);
+            }
+            if (record.getErrorPath() != null) {
+                JsonObject logicalLocation = new JsonObject();
+                logicalLocation.addProperty("fullyQualifiedName", record.getErrorPath().toString());
+                JsonArray logicalLocations = new JsonArray();
+                logicalLocations.add(logicalLocation);
+                location.add("logicalLocations", logicalLocations);
+            }
+            if (location.size() > 0) {
+                JsonArray locations = new JsonArray();
+                locations.add(location);
+                result.add("locations", locations);
+            }
+            if (module != null) {
+                JsonObject properties = new JsonObject();
+                properties.addProperty("module", module);
+                result.add("properties", properties);
+            }
+            GSON.toJson(result, jsonWriter);
+        }
+
+        @Override
+        protected void finish(JsonObject summary) throws IOException {
+            jsonWriter.endArray();
+            JsonObject properties = new JsonObject();
+            properties.addProperty("errors", getErrorCount());
+            properties.add("summary", summary);
+            jsonWriter.name("properties");
+            GSON.toJson(properties, jsonWriter);
+            jsonWriter.endObject().endArray();
+            jsonWriter.endObject();
+            jsonWriter.close();
+        }
+    }
+}
@@ -17,6 +17,8 @@ limitations under the License.
 package org.onap.modeling.yangkit.compiler;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -31,12 +33,28 @@ import org.yangcentral.yangkit.parser.YangYinParser;
 
 public class FileSource implements Source {
     private List<String> files;
+    private boolean importOnly;
     private static final Logger logger = LoggerFactory.getLogger(FileSource.class);
 
     public FileSource(List<String> files) {
         this.files = files;
     }
 
+    /**
+     * the constructor.
+     *
+     * @param files      the paths of yang or yin files
+     * @param importOnly whether the modules of files are parsed as import-only modules
+     */
+    public FileSource(List<String> files, boolean importOnly) {
+        this.files = files;
+        this.importOnly = importOnly;
+    }
+
+    public boolean isImportOnly() {
+        return importOnly;
+    }
+
     @Override
     public YangSchemaContext buildSource(Settings settings, YangSchemaContext yangSchemaContext)
             throws YangCompilerException {
@@ -52,7 +70,17 @@ public class FileSource implements Source {
         }
         try {
             logger.info("start to build schema context for files:" + files);
-            schemaContext = YangYinParser.parse(fileList, schemaContext);
+            if (importOnly) {
+                //the source of module is the path as it's given, the same as the modules to be compiled
+                for (int i = 0; i < fileList.size(); i++) {
+                    try (InputStream in = new FileInputStream(fileList.get(i))) {
+                        schemaContext = YangYinParser.parse(in, files.get(i), !files.get(i).endsWith(".yin"),
+                                true, schemaContext);
+                    }
+                }
+            } else {
+                schemaContext = YangYinParser.parse(fileList, schemaContext);
+            }
             if (withDependencies) {
                 logger.info("start to build dependencies for files:" + files);
                 for (Module module : schemaContext.getModules()) {
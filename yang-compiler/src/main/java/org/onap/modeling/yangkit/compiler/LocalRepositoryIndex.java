@@ -0,0 +1,102 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * an in-memory index of the modules in local repository, it's built by one directory scan,
+ * and the presence of a module is checked against it without touching the file system.
+ */
+public class LocalRepositoryIndex {
+    private static final String SUFFIX = ".yang";
+
+    private final File localRepository;
+    private final Map<String, Set<String>> revisions = new HashMap<>();
+
+    private LocalRepositoryIndex(File localRepository) {
+        this.localRepository = localRepository;
+    }
+
+    /**
+     * build the index of local repository.
+     *
+     * @param localRepository the directory of local repository, it will be created if it doesn't exist
+     * @return local repository index
+     */
+    public static LocalRepositoryIndex build(File localRepository) {
+        if (!localRepository.exists()) {
+            localRepository.mkdirs();
+        }
+        LocalRepositoryIndex index = new LocalRepositoryIndex(localRepository);
+        String[] names = localRepository.list();
+        if (names == null) {
+            return index;
+        }
+        for (String name : names) {
+            if (!name.endsWith(SUFFIX)) {
+                continue;
+            }
+            String moduleDesc = name.substring(0, name.length() - SUFFIX.length());
+            int pos = moduleDesc.indexOf('@');
+            if (pos == -1) {
+                index.add(moduleDesc, "");
+            } else {
+                index.add(moduleDesc.substring(0, pos), moduleDesc.substring(pos + 1));
+            }
+        }
+        return index;
+    }
+
+    public File getLocalRepository() {
+        return localRepository;
+    }
+
+    /**
+     * whether the module is in local repository.
+     *
+     * @param name     module name
+     * @param revision revision, empty or null means any revision
+     * @return true if the module is found
+     */
+    public synchronized boolean contains(String name, String revision) {
+        Set<String> moduleRevisions = revisions.get(name);
+        if (moduleRevisions == null) {
+            return false;
+        }
+        if (revision == null || revision.isEmpty()) {
+            return true;
+        }
+        return moduleRevisions.contains(revision);
+    }
+
+    /**
+     * add a module to index.
+     *
+     * @param name     module name
+     * @param revision revision, empty if the module has no revision
+     * @return true if the module was not in index
+     */
+    public synchronized boolean add(String name, String revision) {
+        return revisions.computeIfAbsent(name, k -> new HashSet<>()).add(revision == null ? "" : revision);
+    }
+}
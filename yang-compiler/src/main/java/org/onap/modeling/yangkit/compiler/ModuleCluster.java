@@ -0,0 +1,287 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.onap.modeling.yangkit.catalog.ModuleInfo;
+import org.onap.modeling.yangkit.compiler.util.YangCompilerUtil;
+import org.yangcentral.yangkit.base.YangBuiltinKeyword;
+import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
+import org.yangcentral.yangkit.model.api.stmt.Module;
+import org.yangcentral.yangkit.model.api.stmt.SubModule;
+import org.yangcentral.yangkit.model.api.stmt.YangStatement;
+
+
+/**
+ * a set of modules which are connected by import/include/belongs-to statements,
+ * and are independent of all other modules to be compiled. A cluster can also be a single main module with its
+ * sub modules (see splitByModule), then the modules it depends on are parsed as import-only modules.
+ */
+public class ModuleCluster {
+    private final List<String> moduleNames = new ArrayList<>();
+    private final List<String> files = new ArrayList<>();
+    private final List<ModuleInfo> moduleInfos = new ArrayList<>();
+    private final Map<String, Set<String>> archiveEntries = new LinkedHashMap<>();
+    private final Set<ModuleCluster> dependencies = new LinkedHashSet<>();
+    private String name;
+
+    /**
+     * get the name of cluster, it's the name of main module if the cluster is split by module.
+     *
+     * @return the name of cluster, null if it's a connected component of import graph
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * get the names of modules in this cluster.
+     *
+     * @return the list of module names
+     */
+    public List<String> getModuleNames() {
+        return moduleNames;
+    }
+
+    /**
+     * get the number of modules in this cluster.
+     *
+     * @return the number of modules
+     */
+    public int size() {
+        return moduleNames.size();
+    }
+
+    private void addModule(Module module) {
+        moduleNames.add(module.getArgStr());
+        String source = module.getElementPosition().getSource();
+        if (source != null && new File(source).exists()) {
+            files.add(source);
+            return;
+        }
+        String archive = ArchiveSource.getArchive(source);
+        if (archive != null && new File(archive).exists()) {
+            archiveEntries.computeIfAbsent(archive, k -> new HashSet<>()).add(ArchiveSource.getEntry(source));
+            return;
+        }
+        //the module is not from a local file (e.g. downloaded), it will be resolved by module information.
+        String revision = "";
+        if (module.getCurRevisionDate().isPresent()) {
+            revision = module.getCurRevisionDate().get();
+        }
+        moduleInfos.add(new ModuleInfo(module.getArgStr(), revision, null));
+    }
+
+    /**
+     * get the clusters which this cluster depends on, it's only set by splitByModule.
+     *
+     * @return the clusters of dependencies (transitively), ordered by dependency
+     */
+    public Set<ModuleCluster> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * get the sources to build the schema context of this cluster.
+     * the dependencies which are not in this cluster will be resolved as import-only modules. The sources of
+     * the clusters it depends on are parsed before it as import-only modules, so they are never resolved from
+     * local repository or remote.
+     *
+     * @return the list of sources
+     */
+    public List<Source> getSources() {
+        List<Source> sources = new ArrayList<>();
+        for (ModuleCluster dependency : dependencies) {
+            dependency.addSources(sources, true);
+        }
+        addSources(sources, false);
+        return sources;
+    }
+
+    private void addSources(List<Source> sources, boolean importOnly) {
+        if (!files.isEmpty()) {
+            sources.add(new FileSource(files, importOnly));
+        }
+        for (Map.Entry<String, Set<String>> entry : archiveEntries.entrySet()) {
+            sources.add(new ArchiveSource(Collections.singletonList(entry.getKey()), entry.getValue(), importOnly));
+        }
+        if (!moduleInfos.isEmpty()) {
+            sources.add(new ModuleSource(moduleInfos, importOnly));
+        }
+    }
+
+    private static String find(Map<String, String> parents, String name) {
+        String root = name;
+        while (!parents.get(root).equals(root)) {
+            root = parents.get(root);
+        }
+        //path compression
+        String cur = name;
+        while (!cur.equals(root)) {
+            String next = parents.get(cur);
+            parents.put(cur, root);
+            cur = next;
+        }
+        return root;
+    }
+
+    /**
+     * split the modules of schema context into clusters, every cluster is a connected component
+     * of import graph. Import-only modules are not part of any cluster, they are shared dependencies.
+     *
+     * @param schemaContext yang schema context (parsed, not need to be validated)
+     * @return the list of clusters, ordered by the first module of every cluster in schema context
+     */
+    public static List<ModuleCluster> partition(YangSchemaContext schemaContext) {
+        List<ModuleCluster> clusters = new ArrayList<>();
+        if (schemaContext == null) {
+            return clusters;
+        }
+        List<Module> modules = schemaContext.getModules();
+        Map<String, String> parents = new HashMap<>();
+        for (Module module : modules) {
+            parents.put(module.getArgStr(), module.getArgStr());
+        }
+        for (Module module : modules) {
+            for (ModuleInfo dependency : YangCompilerUtil.getDependencies(module)) {
+                if (!parents.containsKey(dependency.getName())) {
+                    //import-only dependency, shared by clusters
+                    continue;
+                }
+                String root = find(parents, module.getArgStr());
+                String depRoot = find(parents, dependency.getName());
+                if (!root.equals(depRoot)) {
+                    parents.put(depRoot, root);
+                }
+            }
+        }
+        Map<String, ModuleCluster> clusterMap = new LinkedHashMap<>();
+        for (Module module : modules) {
+            String root = find(parents, module.getArgStr());
+            ModuleCluster cluster = clusterMap.get(root);
+            if (cluster == null) {
+                cluster = new ModuleCluster();
+                clusterMap.put(root, cluster);
+            }
+            cluster.addModule(module);
+        }
+        clusters.addAll(clusterMap.values());
+        return clusters;
+    }
+
+    private static String getMainModuleName(Module module) {
+        if (!(module instanceof SubModule)) {
+            return module.getArgStr();
+        }
+        List<YangStatement> belongsTo = module.getSubStatement(YangBuiltinKeyword.BELONGSTO.getQName());
+        return belongsTo.isEmpty() ? module.getArgStr() : belongsTo.get(0).getArgStr();
+    }
+
+    /**
+     * split the modules of schema context into one cluster per main module, the sub modules are in the cluster
+     * of the module they belong to. The clusters are grouped into levels by dependency: a cluster only depends on
+     * the clusters of previous levels, so the clusters of a level are independent of each other. The clusters of
+     * an import cycle (which is not allowed by yang) are put into the last level together.
+     *
+     * @param schemaContext yang schema context (parsed, not need to be validated)
+     * @return the levels of clusters, every cluster has its dependencies set
+     */
+    public static List<List<ModuleCluster>> splitByModule(YangSchemaContext schemaContext) {
+        List<List<ModuleCluster>> levels = new ArrayList<>();
+        if (schemaContext == null) {
+            return levels;
+        }
+        List<Module> modules = schemaContext.getModules();
+        Set<String> mainModuleNames = new HashSet<>();
+        for (Module module : modules) {
+            if (!(module instanceof SubModule)) {
+                mainModuleNames.add(module.getArgStr());
+            }
+        }
+        Map<String, ModuleCluster> clusterMap = new LinkedHashMap<>();
+        Map<String, ModuleCluster> moduleClusters = new HashMap<>();
+        for (Module module : modules) {
+            String mainModuleName = getMainModuleName(module);
+            //a sub module whose main module is not compiled is validated alone
+            String name = mainModuleNames.contains(mainModuleName) ? mainModuleName : module.getArgStr();
+            ModuleCluster cluster = clusterMap.computeIfAbsent(name, k -> new ModuleCluster());
+            cluster.name = name;
+            cluster.addModule(module);
+            moduleClusters.put(module.getArgStr(), cluster);
+        }
+        //direct dependencies
+        Map<ModuleCluster, Set<ModuleCluster>> direct = new LinkedHashMap<>();
+        for (ModuleCluster cluster : clusterMap.values()) {
+            direct.put(cluster, new LinkedHashSet<>());
+        }
+        for (Module module : modules) {
+            ModuleCluster cluster = moduleClusters.get(module.getArgStr());
+            for (ModuleInfo dependency : YangCompilerUtil.getDependencies(module)) {
+                ModuleCluster dependencyCluster = moduleClusters.get(dependency.getName());
+                if (dependencyCluster != null && dependencyCluster != cluster) {
+                    direct.get(cluster).add(dependencyCluster);
+                }
+            }
+        }
+        Set<ModuleCluster> leveled = new HashSet<>();
+        List<ModuleCluster> remaining = new ArrayList<>(clusterMap.values());
+        while (!remaining.isEmpty()) {
+            List<ModuleCluster> level = new ArrayList<>();
+            for (ModuleCluster cluster : remaining) {
+                if (leveled.containsAll(direct.get(cluster))) {
+                    level.add(cluster);
+                }
+            }
+            if (level.isEmpty()) {
+                //an import cycle
+                level.addAll(remaining);
+            }
+            for (ModuleCluster cluster : level) {
+                //the dependencies of dependencies are added first, so they are parsed before the modules
+                //which import them
+                for (ModuleCluster dependency : direct.get(cluster)) {
+                    if (leveled.contains(dependency)) {
+                        cluster.dependencies.addAll(dependency.dependencies);
+                        cluster.dependencies.add(dependency);
+                    }
+                }
+            }
+            leveled.addAll(level);
+            remaining.removeAll(level);
+            levels.add(level);
+        }
+        return levels;
+    }
+
+    @Override
+    public String toString() {
+        return "ModuleCluster{"
+                + "modules="
+                + moduleNames
+                + '}';
+    }
+}
@@ -0,0 +1,280 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.onap.modeling.yangkit.catalog.ModuleInfo;
+import org.onap.modeling.yangkit.compiler.util.YangCompilerUtil;
+import org.yangcentral.yangkit.base.YangElement;
+import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
+import org.yangcentral.yangkit.model.api.stmt.Module;
+import org.yangcentral.yangkit.writter.YangFormatter;
+import org.yangcentral.yangkit.writter.YangWriter;
+
+
+/**
+ * the content fingerprints of the modules of a validated schema context. The content hash of a module is
+ * the hash of its source file, and the fingerprint of a module also covers the modules which can change its
+ * schema tree, i.e. its dependencies and the modules which import it (they may augment or deviate it).
+ * The fingerprint of the dependency closure of every module is computed once: the modules which depend on
+ * each other (e.g. a module and its sub modules) share one fingerprint, which covers their content hashes
+ * and the closure fingerprints of their dependencies, so the closure of a module is never walked again
+ * for another module.
+ */
+public class ModuleFingerprints {
+    private final YangSchemaContext schemaContext;
+    private final List<Module> allModules = new ArrayList<>();
+    private final Map<Module, String> contentHashes = new HashMap<>();
+    private final Map<String, List<Module>> importers = new HashMap<>();
+    private final Map<Module, String> closureFingerprints = new HashMap<>();
+    private final Map<Module, String> moduleFingerprints = new HashMap<>();
+    private String schemaFingerprint;
+
+    /**
+     * the constructor.
+     *
+     * @param schemaContext validated yang schema context
+     */
+    public ModuleFingerprints(YangSchemaContext schemaContext) {
+        this.schemaContext = schemaContext;
+        allModules.addAll(schemaContext.getModules());
+        allModules.addAll(schemaContext.getImportOnlyModules());
+        for (Module module : allModules) {
+            for (ModuleInfo dependency : YangCompilerUtil.getDependencies(module)) {
+                List<Module> moduleImporters = importers.get(dependency.getName());
+                if (moduleImporters == null) {
+                    moduleImporters = new ArrayList<>();
+                    importers.put(dependency.getName(), moduleImporters);
+                }
+                moduleImporters.add(module);
+            }
+        }
+    }
+
+    private static String getModuleId(Module module) {
+        return module.getArgStr() + (module.getCurRevisionDate().isPresent()
+                ? "@" + module.getCurRevisionDate().get() : "");
+    }
+
+    /**
+     * get the content hash of a module.
+     *
+     * @param module module
+     * @return content hash
+     */
+    public synchronized String getContentHash(Module module) {
+        String hash = contentHashes.get(module);
+        if (hash == null) {
+            hash = SchemaSnapshot.hash(getContent(module));
+            contentHashes.put(module, hash);
+        }
+        return hash;
+    }
+
+    private byte[] getContent(Module module) {
+        String source = module.getElementPosition().getSource();
+        if (source != null) {
+            File file = new File(source);
+            if (file.isFile()) {
+                try {
+                    return Files.readAllBytes(file.toPath());
+                } catch (IOException e) {
+                    //fall through, the content will be serialized
+                }
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        List<YangElement> elements = source == null ? null : schemaContext.getParseResult().get(source);
+        if (elements == null) {
+            sb.append(YangWriter.toYangString(module, YangFormatter.getPrettyYangFormatter(), null));
+        } else {
+            for (YangElement element : elements) {
+                sb.append(YangWriter.toYangString(element, YangFormatter.getPrettyYangFormatter(), null));
+                sb.append("\n");
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * get the fingerprint of the whole schema context, including import-only modules.
+     *
+     * @return fingerprint
+     */
+    public synchronized String getSchemaFingerprint() {
+        if (schemaFingerprint == null) {
+            schemaFingerprint = fingerprint(allModules);
+        }
+        return schemaFingerprint;
+    }
+
+    /**
+     * get the fingerprint of a module, it covers the module, the modules which import it,
+     * and all of their dependencies (transitively).
+     *
+     * @param module module
+     * @return fingerprint
+     */
+    public synchronized String getModuleFingerprint(Module module) {
+        String fingerprint = moduleFingerprints.get(module);
+        if (fingerprint != null) {
+            return fingerprint;
+        }
+        List<String> entries = new ArrayList<>();
+        entries.add(getClosureFingerprint(module));
+        List<Module> moduleImporters = importers.get(module.getArgStr());
+        if (moduleImporters != null) {
+            for (Module importer : moduleImporters) {
+                entries.add(getClosureFingerprint(importer));
+            }
+        }
+        fingerprint = hash(entries);
+        moduleFingerprints.put(module, fingerprint);
+        return fingerprint;
+    }
+
+    private List<Module> getDependencies(Module module) {
+        List<Module> dependencies = new ArrayList<>();
+        for (ModuleInfo dependency : YangCompilerUtil.getDependencies(module)) {
+            dependencies.addAll(schemaContext.getModule(dependency.getName()));
+        }
+        return dependencies;
+    }
+
+    private static class Frame {
+        private final Module module;
+        private final Iterator<Module> pending;
+
+        Frame(Module module, List<Module> dependencies) {
+            this.module = module;
+            this.pending = dependencies.iterator();
+        }
+    }
+
+    /**
+     * get the fingerprint of the dependency closure of a module. The strongly connected components of
+     * dependency graph are found by Tarjan's algorithm with an explicit stack, and every component is
+     * fingerprinted after all components it depends on.
+     *
+     * @param module module
+     * @return closure fingerprint
+     */
+    private String getClosureFingerprint(Module module) {
+        String fingerprint = closureFingerprints.get(module);
+        if (fingerprint != null) {
+            return fingerprint;
+        }
+        Map<Module, List<Module>> dependencies = new HashMap<>();
+        Map<Module, Integer> indexes = new HashMap<>();
+        Map<Module, Integer> lowLinks = new HashMap<>();
+        Deque<Module> component = new ArrayDeque<>();
+        Set<Module> onStack = new HashSet<>();
+        Deque<Frame> frames = new ArrayDeque<>();
+        indexes.put(module, 0);
+        lowLinks.put(module, 0);
+        component.push(module);
+        onStack.add(module);
+        dependencies.put(module, getDependencies(module));
+        frames.push(new Frame(module, dependencies.get(module)));
+        while (!frames.isEmpty()) {
+            Frame frame = frames.peek();
+            if (frame.pending.hasNext()) {
+                Module dependency = frame.pending.next();
+                if (closureFingerprints.containsKey(dependency)) {
+                    continue;
+                }
+                if (!indexes.containsKey(dependency)) {
+                    indexes.put(dependency, indexes.size());
+                    lowLinks.put(dependency, indexes.get(dependency));
+                    component.push(dependency);
+                    onStack.add(dependency);
+                    dependencies.put(dependency, getDependencies(dependency));
+                    frames.push(new Frame(dependency, dependencies.get(dependency)));
+                } else if (onStack.contains(dependency)) {
+                    lowLinks.put(frame.module, Math.min(lowLinks.get(frame.module), indexes.get(dependency)));
+                }
+                continue;
+            }
+            frames.pop();
+            if (!frames.isEmpty()) {
+                Module parent = frames.peek().module;
+                lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLinks.get(frame.module)));
+            }
+            if (!lowLinks.get(frame.module).equals(indexes.get(frame.module))) {
+                continue;
+            }
+            //frame.module is the root of a component, its members are on the stack above it
+            List<Module> members = new ArrayList<>();
+            Module member;
+            do {
+                member = component.pop();
+                onStack.remove(member);
+                members.add(member);
+            } while (member != frame.module);
+            List<String> entries = new ArrayList<>();
+            for (Module current : members) {
+                entries.add(getModuleId(current) + ":" + getContentHash(current));
+            }
+            for (Module current : members) {
+                for (Module dependency : dependencies.get(current)) {
+                    //the members of this component have no fingerprint yet, all other dependencies have
+                    String dependencyFingerprint = closureFingerprints.get(dependency);
+                    if (dependencyFingerprint != null) {
+                        entries.add("dependency:" + dependencyFingerprint);
+                    }
+                }
+            }
+            String componentFingerprint = hash(entries);
+            for (Module current : members) {
+                closureFingerprints.put(current, componentFingerprint);
+            }
+        }
+        return closureFingerprints.get(module);
+    }
+
+    private String fingerprint(Iterable<Module> modules) {
+        List<String> entries = new ArrayList<>();
+        for (Module module : modules) {
+            entries.add(getModuleId(module) + ":" + getContentHash(module));
+        }
+        return hash(entries);
+    }
+
+    private static String hash(List<String> entries) {
+        Collections.sort(entries);
+        StringBuilder sb = new StringBuilder();
+        for (String entry : entries) {
+            sb.append(entry);
+            sb.append("\n");
+        }
+        return SchemaSnapshot.hash(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
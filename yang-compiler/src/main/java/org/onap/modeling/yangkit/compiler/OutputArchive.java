@@ -0,0 +1,172 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+
+/**
+ * an archive which the outputs of plugins are written into, zip(.zip/.jar), tar(.tar) and gzipped tar
+ * (.tar.gz/.tgz) are supported. Entries are written one at a time.
+ */
+public abstract class OutputArchive {
+    private static final int BLOCK_SIZE = 512;
+
+    /**
+     * add an entry to archive.
+     *
+     * @param name    entry name, '/' separated relative path
+     * @param content entry content
+     * @throws IOException io exception
+     */
+    public abstract void addEntry(String name, byte[] content) throws IOException;
+
+    /**
+     * finish and close the archive.
+     *
+     * @throws IOException io exception
+     */
+    public abstract void close() throws IOException;
+
+    /**
+     * open an archive for writing, the type of archive is determined by the file extension.
+     *
+     * @param file archive file
+     * @return output archive
+     * @throws IOException if the archive type is not supported or the file can not be created
+     */
+    public static OutputArchive open(File file) throws IOException {
+        String name = file.getName().toLowerCase();
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        if (name.endsWith(".zip") || name.endsWith(".jar")) {
+            return new ZipArchive(new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file))));
+        }
+        if (name.endsWith(".tar")) {
+            return new TarArchive(new BufferedOutputStream(new FileOutputStream(file)));
+        }
+        if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+            return new TarArchive(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))));
+        }
+        throw new IOException("unsupported archive type:" + file.getName());
+    }
+
+    private static class ZipArchive extends OutputArchive {
+        private final ZipOutputStream out;
+
+        ZipArchive(ZipOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public synchronized void addEntry(String name, byte[] content) throws IOException {
+            out.putNextEntry(new ZipEntry(name));
+            out.write(content);
+            out.closeEntry();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * a minimal ustar writer, only regular files are written.
+     */
+    private static class TarArchive extends OutputArchive {
+        private final OutputStream out;
+
+        TarArchive(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public synchronized void addEntry(String name, byte[] content) throws IOException {
+            byte[] header = new byte[BLOCK_SIZE];
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            if (nameBytes.length <= 100) {
+                System.arraycopy(nameBytes, 0, header, 0, nameBytes.length);
+            } else {
+                //split the name into prefix and name at a '/'
+                int split = name.lastIndexOf('/', name.length() - 1);
+                while (split > 0 && name.substring(split + 1).getBytes(StandardCharsets.UTF_8).length <= 100) {
+                    byte[] prefix = name.substring(0, split).getBytes(StandardCharsets.UTF_8);
+                    if (prefix.length <= 155) {
+                        byte[] suffix = name.substring(split + 1).getBytes(StandardCharsets.UTF_8);
+                        System.arraycopy(suffix, 0, header, 0, suffix.length);
+                        System.arraycopy(prefix, 0, header, 345, prefix.length);
+                        break;
+                    }
+                    split = name.lastIndexOf('/', split - 1);
+                }
+                if (header[0] == 0) {
+                    throw new IOException("the entry name is too long for tar archive:" + name);
+                }
+            }
+            putOctal(header, 100, 8, 0644);
+            putOctal(header, 108, 8, 0);
+            putOctal(header, 116, 8, 0);
+            putOctal(header, 124, 12, content.length);
+            putOctal(header, 136, 12, System.currentTimeMillis() / 1000);
+            header[156] = '0';
+            byte[] magic = "ustar\u000000".getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(magic, 0, header, 257, magic.length);
+            for (int i = 148; i < 156; i++) {
+                header[i] = ' ';
+            }
+            long checksum = 0;
+            for (byte b : header) {
+                checksum += b & 0xff;
+            }
+            putOctal(header, 148, 7, checksum);
+            out.write(header);
+            out.write(content);
+            int padding = (BLOCK_SIZE - (content.length % BLOCK_SIZE)) % BLOCK_SIZE;
+            out.write(new byte[padding]);
+        }
+
+        private static void putOctal(byte[] header, int offset, int length, long value) {
+            String octal = Long.toOctalString(value);
+            int digits = length - 1;
+            StringBuilder sb = new StringBuilder();
+            for (int i = octal.length(); i < digits; i++) {
+                sb.append('0');
+            }
+            sb.append(octal);
+            byte[] bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(bytes, 0, header, offset, digits);
+            header[offset + digits] = 0;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            out.write(new byte[BLOCK_SIZE * 2]);
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,501 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * the sink of plugin outputs. The writes are batched and executed asynchronously on an io executor,
+ * or written into an archive instead of the file system. All pending writes are finished by flush,
+ * and the errors of asynchronous writes are reported by flush too.
+ * A sink without executor writes synchronously.
+ * A partition of sink shares the writes of its root sink, and it only resolves the output paths of plugins
+ * into the directory of partition, so the plugins which are invoked once per partition don't overwrite
+ * the outputs of each other.
+ */
+public class OutputSink {
+    private static final int BATCH_SIZE = 64;
+    //the content of writeNow is handed over to io executor in blocks, at most MAX_BLOCKS blocks are pending
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int MAX_BLOCKS = 4;
+
+    private final ExecutorService executor;
+    private final OutputArchive archive;
+    private final Path baseDir = Paths.get("").toAbsolutePath();
+    private final OutputSink root;
+    private final String partition;
+    private List<PendingWrite> batch = new ArrayList<>();
+    private final List<Future<?>> futures = new ArrayList<>();
+
+    /**
+     * the writer of output content.
+     */
+    public interface StreamWriter {
+        /**
+         * write the content to output stream, the stream will be closed by sink.
+         *
+         * @param out output stream
+         * @throws IOException io exception
+         */
+        void write(OutputStream out) throws IOException;
+    }
+
+    private static class PendingWrite {
+        private final File file;
+        private final StreamWriter writer;
+
+        PendingWrite(File file, StreamWriter writer) {
+            this.file = file;
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * create a synchronous sink which writes to file system.
+     */
+    public OutputSink() {
+        this(null, null);
+    }
+
+    /**
+     * the constructor.
+     *
+     * @param executor io executor, null means writing synchronously
+     * @param archive  the archive which outputs are written into, null means writing to file system
+     */
+    public OutputSink(ExecutorService executor, OutputArchive archive) {
+        this.executor = executor;
+        this.archive = archive;
+        this.root = null;
+        this.partition = null;
+    }
+
+    private OutputSink(OutputSink root, String partition) {
+        this.executor = null;
+        this.archive = null;
+        this.root = root;
+        this.partition = partition;
+    }
+
+    /**
+     * get a partition of this sink, the writes of partition are executed by the root sink.
+     *
+     * @param partition the name of partition, it's the directory which the outputs are resolved into
+     * @return the partition of sink
+     */
+    public OutputSink partition(String partition) {
+        return new OutputSink(root == null ? this : root, partition);
+    }
+
+    public String getPartition() {
+        return partition;
+    }
+
+    /**
+     * resolve the output path of plugin in this sink. The directory of partition is inserted before the last
+     * name of path, e.g. out/stat.xlsx is resolved to out/cluster-1/stat.xlsx in partition cluster-1,
+     * and the path is not changed if the sink is not a partition.
+     *
+     * @param file the output path of plugin
+     * @return the resolved path
+     */
+    public File resolve(File file) {
+        if (partition == null) {
+            return file;
+        }
+        File parent = file.getParentFile();
+        return new File(parent == null ? new File(partition) : new File(parent, partition), file.getName());
+    }
+
+    /**
+     * whether the outputs are written into an archive.
+     *
+     * @return true if the outputs are written into an archive
+     */
+    public boolean isArchive() {
+        if (root != null) {
+            return root.isArchive();
+        }
+        return archive != null;
+    }
+
+    /**
+     * write a string with utf-8 encoding.
+     *
+     * @param file    output file
+     * @param content content
+     */
+    public void write(File file, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        write(file, out -> out.write(bytes));
+    }
+
+    /**
+     * write bytes.
+     *
+     * @param file    output file
+     * @param content content
+     */
+    public void write(File file, byte[] content) {
+        write(file, out -> out.write(content));
+    }
+
+    /**
+     * write the content which is produced by stream writer. If the sink is asynchronous, the writer will be
+     * called on io executor, so it MUST NOT depend on any state which will be changed after this call.
+     *
+     * @param file   output file
+     * @param writer stream writer
+     */
+    public void write(File file, StreamWriter writer) {
+        if (root != null) {
+            root.write(file, writer);
+            return;
+        }
+        if (executor == null) {
+            try {
+                doWrite(file, writer);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return;
+        }
+        synchronized (this) {
+            batch.add(new PendingWrite(file, writer));
+            if (batch.size() >= BATCH_SIZE) {
+                submitBatch();
+            }
+        }
+    }
+
+    /**
+     * write the content which is produced by stream writer on the calling thread, it's used by the writers which
+     * are already running on worker threads, so the content can be streamed to file without being buffered as a
+     * whole. If the sink is asynchronous, the file is written on io executor: the content is handed over in
+     * blocks, and the calling thread waits (as a managed blocker, so a compute pool is compensated) only when
+     * the io thread falls behind. It returns when the file is written.
+     *
+     * @param file   output file
+     * @param writer stream writer
+     * @throws IOException io exception
+     */
+    public void writeNow(File file, StreamWriter writer) throws IOException {
+        if (root != null) {
+            root.writeNow(file, writer);
+            return;
+        }
+        if (executor == null || archive != null) {
+            doWrite(file, writer);
+            return;
+        }
+        PipedWrite pipe = new PipedWrite(file);
+        try {
+            writer.write(pipe);
+        } finally {
+            pipe.close();
+        }
+    }
+
+    /**
+     * the output stream of writeNow, its blocks are written to file by a task of io executor.
+     */
+    private class PipedWrite extends OutputStream {
+        private final byte[] end = new byte[0];
+        private final BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<>(MAX_BLOCKS);
+        private final Future<?> future;
+        private byte[] block = new byte[BLOCK_SIZE];
+        private int count;
+        private boolean closed;
+        private volatile boolean failed;
+
+        PipedWrite(File file) {
+            future = executor.submit(() -> {
+                try {
+                    doWrite(file, out -> {
+                        try {
+                            for (byte[] next = blocks.take(); next != end; next = blocks.take()) {
+                                out.write(next);
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException("interrupted when writing:" + file);
+                        }
+                    });
+                } catch (IOException | RuntimeException e) {
+                    //the writer MUST NOT wait for the blocks which are never taken
+                    failed = true;
+                    blocks.clear();
+                    throw e;
+                }
+                return null;
+            });
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == block.length) {
+                handOver();
+            }
+            block[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == block.length) {
+                    handOver();
+                }
+                int size = Math.min(len, block.length - count);
+                System.arraycopy(bytes, off, block, count, size);
+                count += size;
+                off += size;
+                len -= size;
+            }
+        }
+
+        private void handOver() throws IOException {
+            put(block);
+            block = new byte[BLOCK_SIZE];
+            count = 0;
+        }
+
+        private void put(byte[] next) throws IOException {
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean isReleasable() {
+                        return failed || blocks.offer(next);
+                    }
+
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        //the io task may fail while waiting, so the wait is timed
+                        boolean offered = false;
+                        while (!failed && !offered) {
+                            offered = blocks.offer(next, 100, TimeUnit.MILLISECONDS);
+                        }
+                        return true;
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                throw new InterruptedIOException("interrupted when writing outputs.");
+            }
+            if (failed) {
+                await();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (count > 0) {
+                byte[] last = new byte[count];
+                System.arraycopy(block, 0, last, 0, count);
+                put(last);
+            }
+            block = null;
+            put(end);
+            await();
+        }
+
+        /**
+         * wait for the file to be written, and rethrow the error of io task.
+         */
+        private void await() throws IOException {
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean isReleasable() {
+                        return future.isDone();
+                    }
+
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        try {
+                            future.get();
+                        } catch (ExecutionException e) {
+                            //it's rethrown below
+                        }
+                        return true;
+                    }
+                });
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                throw new InterruptedIOException("interrupted when writing outputs.");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * open an output stream which is written on the calling thread, it's used by the writers which produce
+     * the content incrementally, e.g. during a schema traversal. If the outputs are written into an archive,
+     * the content is added to the archive when the stream is closed.
+     *
+     * @param file output file
+     * @return output stream, it MUST be closed by caller
+     * @throws IOException io exception
+     */
+    public OutputStream open(File file) throws IOException {
+        if (root != null) {
+            return root.open(file);
+        }
+        if (archive != null) {
+            String entryName = getEntryName(file);
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() throws IOException {
+                    archive.addEntry(entryName, toByteArray());
+                }
+            };
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        return new BufferedOutputStream(new FileOutputStream(file));
+    }
+
+    private void submitBatch() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<PendingWrite> writes = batch;
+        batch = new ArrayList<>();
+        futures.add(executor.submit(() -> {
+            for (PendingWrite write : writes) {
+                doWrite(write.file, write.writer);
+            }
+            return null;
+        }));
+    }
+
+    private void doWrite(File file, StreamWriter writer) throws IOException {
+        if (archive != null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writer.write(out);
+            archive.addEntry(getEntryName(file), out.toByteArray());
+            return;
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            writer.write(out);
+        }
+    }
+
+    private String getEntryName(File file) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        if (path.startsWith(baseDir)) {
+            path = baseDir.relativize(path);
+        } else if (path.getRoot() != null) {
+            path = path.getRoot().relativize(path);
+        }
+        return path.toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * wait for all pending writes to be finished.
+     *
+     * @throws YangCompilerException if any write fails
+     */
+    public void flush() throws YangCompilerException {
+        if (root != null) {
+            root.flush();
+            return;
+        }
+        List<Future<?>> pending;
+        synchronized (this) {
+            if (executor != null) {
+                submitBatch();
+            }
+            pending = new ArrayList<>(futures);
+            futures.clear();
+        }
+        String error = null;
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new YangCompilerException("interrupted when flushing outputs.");
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e.getCause().getMessage();
+                }
+            }
+        }
+        if (error != null) {
+            throw new YangCompilerException("fail to write outputs:" + error);
+        }
+    }
+
+    /**
+     * flush all pending writes and close the archive. A partition is never closed, it's closed with its root sink.
+     *
+     * @throws YangCompilerException if any write fails
+     */
+    public void close() throws YangCompilerException {
+        if (root != null) {
+            root.flush();
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            if (archive != null) {
+                try {
+                    archive.close();
+                } catch (IOException e) {
+                    throw new YangCompilerException("fail to close output archive:" + e.getMessage());
+                }
+            }
+        }
+    }
+}
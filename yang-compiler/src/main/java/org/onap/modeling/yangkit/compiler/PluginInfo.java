@@ -31,8 +31,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPlugin;
+import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPluginProvider;
 
 
 @SuppressWarnings("ALL")
@@ -40,7 +42,10 @@ public class PluginInfo {
     private final String pluginName;
 
     private  URLClassLoader classLoader;
-    private final YangCompilerPlugin plugin;
+    private YangCompilerPlugin plugin;
+    private Supplier<YangCompilerPlugin> factory;
+    private String className;
+    private File classPath;
 
     private String description;
     private final List<PluginParameterInfo> parameters = new ArrayList<>();
@@ -56,6 +61,31 @@ public class PluginInfo {
         this.plugin = plugin;
     }
 
+    private PluginInfo(String pluginName) {
+        this.pluginName = pluginName;
+    }
+
+    /**
+     * the constructor of lazy plugin, the plugin will be created by factory when it's used at the first time.
+     *
+     * @param pluginName plugin name
+     * @param factory    plugin factory
+     */
+    public PluginInfo(String pluginName, Supplier<YangCompilerPlugin> factory) {
+        this.pluginName = pluginName;
+        this.factory = factory;
+    }
+
+    /**
+     * create plugin information from plugin provider.
+     *
+     * @param provider plugin provider
+     * @return plugin information
+     */
+    public static PluginInfo fromProvider(YangCompilerPluginProvider provider) {
+        return new PluginInfo(provider.getName(), provider::create);
+    }
+
     /**
      * get the name of plugin.
      *
@@ -65,7 +95,13 @@ public class PluginInfo {
         return pluginName;
     }
 
-    public URLClassLoader getClassLoader() {
+    /**
+     * get the class loader of plugin, the plugin will be loaded if it's not loaded.
+     *
+     * @return class loader, null if the plugin is loaded by application class loader
+     */
+    public synchronized URLClassLoader getClassLoader() {
+        getPlugin();
         return classLoader;
     }
 
@@ -74,14 +110,80 @@ public class PluginInfo {
     }
 
     /**
-     * get the plugin.
+     * get the plugin, the plugin class is loaded and instantiated when it's used at the first time.
      *
      * @return plugin
      */
-    public YangCompilerPlugin getPlugin() {
+    public synchronized YangCompilerPlugin getPlugin() {
+        if (plugin == null) {
+            plugin = factory != null ? factory.get() : loadPlugin();
+        }
         return plugin;
     }
 
+    /**
+     * whether the plugin has been loaded.
+     *
+     * @return true if loaded
+     */
+    public synchronized boolean isLoaded() {
+        return plugin != null;
+    }
+
+    /**
+     * set the factory of plugin, it takes precedence over the class of plugin if the plugin is not loaded.
+     *
+     * @param factory plugin factory
+     */
+    public synchronized void setFactory(Supplier<YangCompilerPlugin> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * get the class name of plugin.
+     *
+     * @return class name
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * get the class path of plugin which is declared in plugins.json.
+     *
+     * @return class path, null if the plugin class is loaded from the class path of yang compiler
+     */
+    public File getClassPath() {
+        return classPath;
+    }
+
+    private YangCompilerPlugin loadPlugin() {
+        try {
+            Class<? extends YangCompilerPlugin> pluginClass = null;
+            if (classPath != null) {
+                URL[] cp = {classPath.toURI().toURL()};
+                classLoader = new URLClassLoader(cp);
+                pluginClass = (Class<? extends YangCompilerPlugin>) classLoader.loadClass(className);
+            } else {
+                pluginClass = (Class<? extends YangCompilerPlugin>) Class.forName(className);
+            }
+            Constructor<? extends YangCompilerPlugin> constructor = pluginClass.getConstructor();
+            return constructor.newInstance();
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e);
+        } catch (InstantiationException e) {
+            throw new RuntimeException(e);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * get the description.
      *
@@ -119,7 +221,8 @@ public class PluginInfo {
     }
 
     /**
-     * parse plugin information from json.
+     * parse plugin information from json, only the metadata is parsed, the plugin class will be loaded
+     * when the plugin is used at the first time.
      *
      * @param pluginFile  plugins.json File handler
      * @param jsonElement json element
@@ -128,73 +231,48 @@ public class PluginInfo {
     public static PluginInfo parse(File pluginFile, JsonElement jsonElement) {
         JsonObject jsonObject = jsonElement.getAsJsonObject();
         String pluginName = jsonObject.get("name").getAsString();
-        URLClassLoader classLoader = null;
         String classPath = null;
         JsonElement classPathElement = jsonObject.get("class-path");
         if (classPathElement != null) {
             classPath = classPathElement.getAsString();
         }
         String className = jsonObject.get("class").getAsString();
-        try {
-            Class<? extends YangCompilerPlugin> pluginClass = null;
-            if (classPath != null && !classPath.trim().isEmpty()) {
-                Path path = Paths.get(classPath);
-                File file;
-                if (!path.isAbsolute()) {
-                    file = new File(pluginFile.getParentFile(), classPath);
-                } else {
-                    file = new File(classPath);
-                }
-                if (!file.exists()) {
-                    System.out.println("[ERROR]the class-path:" + file.getAbsolutePath() + " is not found.");
-                    return null;
-                }
-                URL[] cp = {file.toURI().toURL()};
-                classLoader = new URLClassLoader(cp);
-
-                pluginClass = (Class<? extends YangCompilerPlugin>) classLoader.loadClass(className);
-
+        File file = null;
+        if (classPath != null && !classPath.trim().isEmpty()) {
+            Path path = Paths.get(classPath);
+            if (!path.isAbsolute()) {
+                file = new File(pluginFile.getParentFile(), classPath);
             } else {
-                pluginClass = (Class<? extends YangCompilerPlugin>) Class.forName(className);
+                file = new File(classPath);
             }
-
-            Constructor<? extends YangCompilerPlugin> constructor = pluginClass.getConstructor();
-            YangCompilerPlugin yangCompilerPlugin = constructor.newInstance();
-            PluginInfo pluginInfo = new PluginInfo(pluginName, yangCompilerPlugin);
-            pluginInfo.setClassLoader(classLoader);
-            if (jsonObject.get("description") != null) {
-                String description = jsonObject.get("description").getAsString();
-                pluginInfo.setDescription(description);
+            if (!file.exists()) {
+                System.out.println("[ERROR]the class-path:" + file.getAbsolutePath() + " is not found.");
+                return null;
             }
-            JsonElement parasElement = jsonObject.get("parameter");
-            if (parasElement != null) {
-                JsonArray paraArray = parasElement.getAsJsonArray();
-                for (int i = 0; i < paraArray.size(); i++) {
-                    JsonElement paraElement = paraArray.get(i);
-                    JsonObject para = paraElement.getAsJsonObject();
-                    String name = para.get("name").getAsString();
-                    PluginParameterInfo parameter = new PluginParameterInfo(name);
-                    if (para.get("description") != null) {
-                        String description = para.get("description").getAsString();
-                        parameter.setDescription(description);
-                    }
-                    pluginInfo.addParameter(parameter);
+        }
+        PluginInfo pluginInfo = new PluginInfo(pluginName);
+        pluginInfo.className = className;
+        pluginInfo.classPath = file;
+        if (jsonObject.get("description") != null) {
+            String description = jsonObject.get("description").getAsString();
+            pluginInfo.setDescription(description);
+        }
+        JsonElement parasElement = jsonObject.get("parameter");
+        if (parasElement != null) {
+            JsonArray paraArray = parasElement.getAsJsonArray();
+            for (int i = 0; i < paraArray.size(); i++) {
+                JsonElement paraElement = paraArray.get(i);
+                JsonObject para = paraElement.getAsJsonObject();
+                String name = para.get("name").getAsString();
+                PluginParameterInfo parameter = new PluginParameterInfo(name);
+                if (para.get("description") != null) {
+                    String description = para.get("description").getAsString();
+                    parameter.setDescription(description);
                 }
+                pluginInfo.addParameter(parameter);
             }
-            return pluginInfo;
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException(e);
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException(e);
-        } catch (InvocationTargetException e) {
-            throw new RuntimeException(e);
-        } catch (InstantiationException e) {
-            throw new RuntimeException(e);
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException(e);
-        } catch (MalformedURLException e) {
-            throw new RuntimeException(e);
         }
+        return pluginInfo;
     }
 
     @Override
@@ -203,8 +281,8 @@ public class PluginInfo {
                 + "pluginName='"
                 + pluginName
                 + '\''
-                + ", plugin="
-                + plugin
+                + ", className="
+                + className
                 + ", description='"
                 + description
                 + '\''
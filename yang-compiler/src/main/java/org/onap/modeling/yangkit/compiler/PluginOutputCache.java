@@ -0,0 +1,162 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+import org.onap.modeling.yangkit.compiler.plugin.PluginCacheKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * the local cache of plugin outputs. Every entry is a directory named by the digest of cache key under the
+ * directory of plugin, the outputs are stored by their index in the cache key. The cache is best effort,
+ * any io error or missing output makes it a cache miss.
+ */
+public class PluginOutputCache {
+    private static final String COMPLETE = ".complete";
+    private final File cacheDir;
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginOutputCache.class);
+
+    /**
+     * the constructor.
+     *
+     * @param cacheDir the root directory of cache
+     */
+    public PluginOutputCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
+    private File getEntry(String pluginName, PluginCacheKey cacheKey) {
+        return new File(new File(cacheDir, pluginName), cacheKey.getDigest());
+    }
+
+    /**
+     * restore the outputs of a plugin from cache.
+     *
+     * @param pluginName plugin name
+     * @param cacheKey   cache key
+     * @param outputSink the output sink which resolves the outputs of cache key
+     * @return true if all outputs are restored, false if cache miss
+     */
+    public boolean restore(String pluginName, PluginCacheKey cacheKey, OutputSink outputSink) {
+        File entry = getEntry(pluginName, cacheKey);
+        if (!new File(entry, COMPLETE).isFile()) {
+            return false;
+        }
+        List<String> outputs = cacheKey.getOutputs();
+        for (int i = 0; i < outputs.size(); i++) {
+            if (!new File(entry, String.valueOf(i)).exists()) {
+                //the entry is incomplete, e.g. it's been cleaned up partially
+                return false;
+            }
+        }
+        try {
+            for (int i = 0; i < outputs.size(); i++) {
+                copy(new File(entry, String.valueOf(i)).toPath(),
+                        outputSink.resolve(new File(outputs.get(i))).toPath());
+            }
+        } catch (IOException e) {
+            logger.warn("fail to restore outputs of plugin:" + pluginName + " from cache, " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * store the outputs of a plugin to cache.
+     *
+     * @param pluginName plugin name
+     * @param cacheKey   cache key
+     * @param outputSink the output sink which resolves the outputs of cache key
+     */
+    public void store(String pluginName, PluginCacheKey cacheKey, OutputSink outputSink) {
+        File entry = getEntry(pluginName, cacheKey);
+        List<String> outputs = cacheKey.getOutputs();
+        try {
+            if (entry.exists()) {
+                delete(entry.toPath());
+            }
+            for (String output : outputs) {
+                if (!outputSink.resolve(new File(output)).exists()) {
+                    //an entry without all outputs would never be restored
+                    logger.warn("the outputs of plugin:" + pluginName + " are not cached, " + output
+                            + " is not found.");
+                    return;
+                }
+            }
+            entry.mkdirs();
+            for (int i = 0; i < outputs.size(); i++) {
+                copy(outputSink.resolve(new File(outputs.get(i))).toPath(),
+                        new File(entry, String.valueOf(i)).toPath());
+            }
+            Files.createFile(new File(entry, COMPLETE).toPath());
+        } catch (IOException e) {
+            logger.warn("fail to cache outputs of plugin:" + pluginName + ", " + e.getMessage());
+        }
+    }
+
+    private static void copy(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path targetFile = target.resolve(source.relativize(file).toString());
+                if (targetFile.getParent() != null) {
+                    Files.createDirectories(targetFile.getParent());
+                }
+                Files.copy(file, targetFile, StandardCopyOption.REPLACE_EXISTING);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void delete(Path path) throws IOException {
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,433 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.yangcentral.yangkit.base.YangElement;
+import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
+import org.yangcentral.yangkit.model.api.stmt.Module;
+import org.yangcentral.yangkit.writter.YangFormatter;
+import org.yangcentral.yangkit.writter.YangWriter;
+
+
+/**
+ * the snapshot of a validated yang schema context, it's a bundle of sources rather than a parsed schema.
+ * It records the source content of every module (including import-only modules) together with its content hash,
+ * so the schema context can be rebuilt without dependency resolution, the modules are still parsed and validated
+ * when it's loaded. It also records the yang files of the directories which the modules (not import-only) are read
+ * from, and the snapshot will be rejected if any local input has been changed or deleted, or any yang file
+ * has been added to those directories. A local input is only hashed again if its size or modification time
+ * has been changed.
+ */
+public class SchemaSnapshot {
+    private static final int MAGIC = 0x594b5353;
+    /**
+     * the version of snapshot format, it MUST be increased if the format is changed.
+     */
+    public static final int FORMAT_VERSION = 3;
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, List<String>> inputs = new LinkedHashMap<>();
+
+    /**
+     * get all entries of snapshot.
+     *
+     * @return the list of entries
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * get the yang files of input directories when the snapshot was created.
+     *
+     * @return the map of directory and the names of yang files in it
+     */
+    public Map<String, List<String>> getInputs() {
+        return inputs;
+    }
+
+    /**
+     * create a snapshot from validated yang schema context.
+     *
+     * @param schemaContext yang schema context
+     * @return snapshot
+     * @throws YangCompilerException if the content of a module can not be read
+     */
+    public static SchemaSnapshot create(YangSchemaContext schemaContext) throws YangCompilerException {
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        for (Module module : schemaContext.getModules()) {
+            snapshot.entries.add(createEntry(schemaContext, module, false));
+        }
+        for (Module module : schemaContext.getImportOnlyModules()) {
+            snapshot.entries.add(createEntry(schemaContext, module, true));
+        }
+        for (Entry entry : snapshot.entries) {
+            if (entry.isLocal() && !entry.isImportOnly()) {
+                File dir = new File(entry.getSource()).getAbsoluteFile().getParentFile();
+                if (dir != null && !snapshot.inputs.containsKey(dir.getPath())) {
+                    snapshot.inputs.put(dir.getPath(), listInputs(dir));
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * list the names of yang files in a directory, they are sorted so the lists can be compared.
+     *
+     * @param dir directory
+     * @return the names of yang files
+     */
+    private static List<String> listInputs(File dir) {
+        String[] names = dir.list((parent, name) -> name.endsWith(".yang") || name.endsWith(".yin"));
+        if (names == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(names);
+        return Arrays.asList(names);
+    }
+
+    /**
+     * whether the snapshot is out of date, it's true if any local source has been changed or deleted,
+     * or any yang file has been added to the input directories.
+     *
+     * @return true if it's out of date
+     */
+    public boolean isStale() {
+        return getStaleReason() != null;
+    }
+
+    private String getStaleReason() {
+        for (Entry entry : entries) {
+            if (entry.isStale()) {
+                return "the source:" + entry.getSource() + " has been changed or deleted.";
+            }
+        }
+        for (Map.Entry<String, List<String>> input : inputs.entrySet()) {
+            if (!listInputs(new File(input.getKey())).equals(input.getValue())) {
+                return "the yang files of directory:" + input.getKey() + " have been changed.";
+            }
+        }
+        return null;
+    }
+
+    private static Entry createEntry(YangSchemaContext schemaContext, Module module, boolean importOnly)
+            throws YangCompilerException {
+        String source = module.getElementPosition().getSource();
+        byte[] content;
+        File file = new File(source);
+        boolean local = file.isFile();
+        long size = -1;
+        long lastModified = -1;
+        if (local) {
+            //they're taken before the content is read, so a change during reading is detected next time
+            size = file.length();
+            lastModified = file.lastModified();
+            try {
+                content = Files.readAllBytes(file.toPath());
+            } catch (IOException e) {
+                throw new YangCompilerException(e.getMessage());
+            }
+        } else {
+            //not a local file (e.g. downloaded), serialize it from parse result
+            StringBuilder sb = new StringBuilder();
+            List<YangElement> elements = schemaContext.getParseResult().get(source);
+            if (elements == null) {
+                throw new YangCompilerException("the content of module:" + module.getArgStr() + " is not found.");
+            }
+            for (YangElement element : elements) {
+                sb.append(YangWriter.toYangString(element, YangFormatter.getPrettyYangFormatter(), null));
+                sb.append("\n");
+            }
+            content = sb.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        String revision = "";
+        if (module.getCurRevisionDate().isPresent()) {
+            revision = module.getCurRevisionDate().get();
+        }
+        return new Entry(module.getArgStr(), revision, source, importOnly, local, content, size, lastModified);
+    }
+
+    /**
+     * write the snapshot to a file.
+     *
+     * @param file snapshot file
+     * @throws IOException io exception
+     */
+    public void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(new FileOutputStream(file))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                writeString(out, entry.getName());
+                writeString(out, entry.getRevision());
+                writeString(out, entry.getSource());
+                out.writeBoolean(entry.isImportOnly());
+                out.writeBoolean(entry.isLocal());
+                out.writeLong(entry.getSize());
+                out.writeLong(entry.getLastModified());
+                writeString(out, entry.getHash());
+                out.writeInt(entry.getContent().length);
+                out.write(entry.getContent());
+            }
+            out.writeInt(inputs.size());
+            for (Map.Entry<String, List<String>> input : inputs.entrySet()) {
+                writeString(out, input.getKey());
+                out.writeInt(input.getValue().size());
+                for (String name : input.getValue()) {
+                    writeString(out, name);
+                }
+            }
+        }
+    }
+
+    /**
+     * read a snapshot from a file, and check whether it's up-to-date. If the format version is not supported,
+     * or it's out of date(see isStale), the snapshot will be rejected.
+     *
+     * @param file snapshot file
+     * @return snapshot
+     * @throws YangCompilerException if the snapshot is invalid or stale
+     */
+    public static SchemaSnapshot read(File file) throws YangCompilerException {
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new YangCompilerException(file.getPath() + " is not a schema snapshot.");
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new YangCompilerException("unsupported snapshot version:" + version + " of "
+                        + file.getPath() + ", expected version:" + FORMAT_VERSION);
+            }
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                String name = readString(in);
+                String revision = readString(in);
+                String source = readString(in);
+                boolean importOnly = in.readBoolean();
+                boolean local = in.readBoolean();
+                long fileSize = in.readLong();
+                long lastModified = in.readLong();
+                String hash = readString(in);
+                byte[] content = new byte[in.readInt()];
+                in.readFully(content);
+                Entry entry = new Entry(name, revision, source, importOnly, local, content, fileSize, lastModified);
+                if (!entry.getHash().equals(hash)) {
+                    throw new YangCompilerException("the snapshot:" + file.getPath() + " is corrupted, module:"
+                            + name);
+                }
+                snapshot.entries.add(entry);
+            }
+            int inputSize = in.readInt();
+            for (int i = 0; i < inputSize; i++) {
+                String dir = readString(in);
+                List<String> names = new ArrayList<>();
+                int nameSize = in.readInt();
+                for (int j = 0; j < nameSize; j++) {
+                    names.add(readString(in));
+                }
+                snapshot.inputs.put(dir, names);
+            }
+        } catch (IOException e) {
+            throw new YangCompilerException(e.getMessage());
+        }
+        String staleReason = snapshot.getStaleReason();
+        if (staleReason != null) {
+            throw new YangCompilerException("the snapshot:" + file.getPath() + " is stale, " + staleReason);
+        }
+        return snapshot;
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * calculate the content hash (SHA-256).
+     *
+     * @param content content
+     * @return hex string of hash
+     */
+    public static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static class Entry {
+        private final String name;
+        private final String revision;
+        private final String source;
+        private final boolean importOnly;
+        private final boolean local;
+        private final byte[] content;
+        private final String hash;
+        private final long size;
+        private final long lastModified;
+
+        /**
+         * the constructor.
+         *
+         * @param name       module name
+         * @param revision   module revision, empty if the module has no revision
+         * @param source     the source of module, e.g. file path or url
+         * @param importOnly whether the module is import-only
+         * @param local      whether the source is a local file
+         * @param content    the content of module
+         */
+        public Entry(String name, String revision, String source, boolean importOnly, boolean local,
+                     byte[] content) {
+            this(name, revision, source, importOnly, local, content, -1, -1);
+        }
+
+        /**
+         * the constructor with the size and modification time of local source.
+         *
+         * @param name         module name
+         * @param revision     module revision, empty if the module has no revision
+         * @param source       the source of module, e.g. file path or url
+         * @param importOnly   whether the module is import-only
+         * @param local        whether the source is a local file
+         * @param content      the content of module
+         * @param size         the size of local source, -1 if it's unknown
+         * @param lastModified the modification time of local source, -1 if it's unknown
+         */
+        public Entry(String name, String revision, String source, boolean importOnly, boolean local,
+                     byte[] content, long size, long lastModified) {
+            this.name = name;
+            this.revision = revision;
+            this.source = source;
+            this.importOnly = importOnly;
+            this.local = local;
+            this.content = content;
+            this.hash = hash(content);
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getRevision() {
+            return revision;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public boolean isLocal() {
+            return local;
+        }
+
+        public boolean isImportOnly() {
+            return importOnly;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * whether the source is yang format (not yin).
+         *
+         * @return true if it's yang format
+         */
+        public boolean isYang() {
+            return !source.endsWith(".yin");
+        }
+
+        /**
+         * whether the local source of this entry has been changed or deleted since the snapshot was created.
+         * The source is hashed only if its size or modification time is not the same as recorded.
+         *
+         * @return true if it has been changed or deleted
+         */
+        public boolean isStale() {
+            File file = new File(source);
+            if (!file.isFile()) {
+                //the content of a downloaded source is kept in snapshot, but a local source has been deleted
+                return local;
+            }
+            if (size != -1 && file.length() == size && file.lastModified() == lastModified) {
+                return false;
+            }
+            try {
+                return !hash(Files.readAllBytes(file.toPath())).equals(hash);
+            } catch (IOException e) {
+                return true;
+            }
+        }
+    }
+}
@@ -25,6 +25,7 @@ import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.onap.modeling.yangkit.catalog.ModuleInfo;
 
@@ -38,6 +39,11 @@ public class Settings {
     private String token;
     private List<ModuleInfo> moduleInfos = new ArrayList<>();
 
+    private int concurrency = Runtime.getRuntime().availableProcessors();
+    private int ioConcurrency = 4;
+    //it's not a setting of json, it's only set during compilation
+    private ExecutorService ioExecutor;
+
     /**
      * get the remote repository.
      *
@@ -173,6 +179,46 @@ public class Settings {
         this.token = token;
     }
 
+    /**
+     * get the max number of threads for computation, it bounds the shared compute executor of yang compiler.
+     *
+     * @return concurrency
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * get the max number of threads for blocking io, it bounds the shared io executor of yang compiler.
+     *
+     * @return io concurrency
+     */
+    public int getIoConcurrency() {
+        return ioConcurrency;
+    }
+
+    public void setIoConcurrency(int ioConcurrency) {
+        this.ioConcurrency = Math.max(1, ioConcurrency);
+    }
+
+    /**
+     * get the shared io executor of yang compiler which the sources read their inputs with,
+     * it's set during compilation.
+     *
+     * @return io executor, null if the sources should read their inputs by the current thread
+     */
+    public ExecutorService getIoExecutor() {
+        return ioExecutor;
+    }
+
+    public void setIoExecutor(ExecutorService ioExecutor) {
+        this.ioExecutor = ioExecutor;
+    }
+
     /**
      * parse settings from json string.
      *
@@ -211,6 +257,14 @@ public class Settings {
         if (tokenElement != null) {
             settings.setToken(tokenElement.getAsString());
         }
+        JsonElement concurrencyElement = settingInstance.get("concurrency");
+        if (concurrencyElement != null) {
+            settings.setConcurrency(concurrencyElement.getAsInt());
+        }
+        JsonElement ioConcurrencyElement = settingInstance.get("io-concurrency");
+        if (ioConcurrencyElement != null) {
+            settings.setIoConcurrency(ioConcurrencyElement.getAsInt());
+        }
         JsonElement moduleInfosElement = settingInstance.get("module-info");
         if (moduleInfosElement != null) {
             JsonArray moduleInfos = moduleInfosElement.getAsJsonArray();
@@ -0,0 +1,75 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yangcentral.yangkit.model.api.schema.ModuleId;
+import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
+import org.yangcentral.yangkit.parser.YangYinParser;
+
+
+/**
+ * a source which rebuilds the schema context from schema snapshots. The snapshot is a bundle of sources
+ * which contains all dependencies, so no dependency will be resolved from local or remote repository,
+ * but the modules are parsed and validated the same as the other sources.
+ */
+public class SnapshotSource implements Source {
+    private final List<String> snapshots;
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotSource.class);
+
+    public SnapshotSource(List<String> snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    public List<String> getSnapshots() {
+        return snapshots;
+    }
+
+    @Override
+    public YangSchemaContext buildSource(Settings settings, YangSchemaContext yangSchemaContext)
+            throws YangCompilerException {
+        return buildSource(settings, yangSchemaContext, false);
+    }
+
+    @Override
+    public YangSchemaContext buildSource(Settings settings, YangSchemaContext schemaContext, boolean withDependencies)
+            throws YangCompilerException {
+        for (String snapshotPath : snapshots) {
+            logger.info("start to load schema snapshot:" + snapshotPath);
+            SchemaSnapshot snapshot = SchemaSnapshot.read(new File(snapshotPath));
+            for (SchemaSnapshot.Entry entry : snapshot.getEntries()) {
+                if (schemaContext != null && schemaContext.getModule(
+                        new ModuleId(entry.getName(), entry.getRevision())).isPresent()) {
+                    continue;
+                }
+                try {
+                    schemaContext = YangYinParser.parse(new ByteArrayInputStream(entry.getContent()),
+                            entry.getSource(), entry.isYang(), entry.isImportOnly(), schemaContext);
+                } catch (Exception e) {
+                    throw new YangCompilerException(e.getMessage());
+                }
+            }
+            logger.info("end to load schema snapshot:" + snapshotPath);
+        }
+        return schemaContext;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * a minimal reader of ustar/gnu tar, only regular files are returned, long names of gnu(L) and pax(x)
+ * headers and the base-256 sizes of gnu are supported. The entries are streamed, only the headers and
+ * long names are buffered.
+ */
+class TarReader {
+    private static final int BLOCK_SIZE = 512;
+
+    private final InputStream in;
+    private final byte[] header = new byte[BLOCK_SIZE];
+    private EntryInputStream entryStream;
+
+    TarReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * move to the next regular file, the rest of current entry is skipped.
+     *
+     * @return the name of next entry, null if the end of archive is reached
+     * @throws IOException io exception
+     */
+    String nextEntry() throws IOException {
+        if (entryStream != null) {
+            skip(entryStream.remaining + entryStream.padding);
+            entryStream = null;
+        }
+        String longName = null;
+        while (true) {
+            if (!readBlock(header)) {
+                return null;
+            }
+            if (isZero(header)) {
+                return null;
+            }
+            long size = parseNumber(header, 124, 12);
+            long padding = (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+            byte type = header[156];
+            if (type == 'L' || type == 'x') {
+                byte[] content = readBytes(size);
+                skip(padding);
+                String name = type == 'L' ? trim(new String(content, StandardCharsets.UTF_8))
+                        : getPaxPath(content);
+                if (name != null) {
+                    longName = name;
+                }
+                continue;
+            }
+            String name = longName != null ? longName : getName(header);
+            longName = null;
+            if (type != '0' && type != 0) {
+                skip(size + padding);
+                continue;
+            }
+            entryStream = new EntryInputStream(in, size, padding);
+            return name;
+        }
+    }
+
+    InputStream getEntryStream() {
+        return entryStream;
+    }
+
+    private boolean readBlock(byte[] block) throws IOException {
+        int offset = 0;
+        while (offset < block.length) {
+            int length = in.read(block, offset, block.length - offset);
+            if (length == -1) {
+                if (offset == 0) {
+                    return false;
+                }
+                throw new EOFException("truncated tar header");
+            }
+            offset += length;
+        }
+        return true;
+    }
+
+    private byte[] readBytes(long size) throws IOException {
+        byte[] bytes = new byte[(int) size];
+        int offset = 0;
+        while (offset < bytes.length) {
+            int length = in.read(bytes, offset, bytes.length - offset);
+            if (length == -1) {
+                throw new EOFException("truncated tar entry");
+            }
+            offset += length;
+        }
+        return bytes;
+    }
+
+    private void skip(long size) throws IOException {
+        while (size > 0) {
+            long skipped = in.skip(size);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    throw new EOFException("truncated tar entry");
+                }
+                skipped = 1;
+            }
+            size -= skipped;
+        }
+    }
+
+    private static boolean isZero(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String trim(String str) {
+        int end = str.indexOf('\0');
+        return end == -1 ? str : str.substring(0, end);
+    }
+
+    private static String getString(byte[] block, int offset, int length) {
+        return trim(new String(block, offset, length, StandardCharsets.UTF_8));
+    }
+
+    private static String getName(byte[] block) {
+        String name = getString(block, 0, 100);
+        if (getString(block, 257, 5).equals("ustar")) {
+            String prefix = getString(block, 345, 155);
+            if (!prefix.isEmpty()) {
+                return prefix + "/" + name;
+            }
+        }
+        return name;
+    }
+
+    private static long parseNumber(byte[] block, int offset, int length) {
+        if ((block[offset] & 0x80) != 0) {
+            //gnu base-256 encoding
+            long value = 0;
+            for (int i = offset + 1; i < offset + length; i++) {
+                value = (value << 8) | (block[i] & 0xff);
+            }
+            return value;
+        }
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = block[i];
+            if (b == 0) {
+                break;
+            }
+            if (b >= '0' && b <= '7') {
+                value = (value << 3) + (b - '0');
+            }
+        }
+        return value;
+    }
+
+    /**
+     * get the path from pax extended header, the records are "length key=value\n", and the length is
+     * the number of bytes of record.
+     */
+    private static String getPaxPath(byte[] content) {
+        int pos = 0;
+        while (pos < content.length) {
+            int space = pos;
+            int length = 0;
+            while (space < content.length && content[space] >= '0' && content[space] <= '9') {
+                length = length * 10 + (content[space] - '0');
+                space++;
+            }
+            if (space >= content.length || content[space] != ' ' || length < space - pos + 2
+                    || pos + length > content.length) {
+                return null;
+            }
+            String record = new String(content, space + 1, pos + length - space - 2, StandardCharsets.UTF_8);
+            if (record.startsWith("path=")) {
+                return record.substring("path=".length());
+            }
+            pos += length;
+        }
+        return null;
+    }
+
+    /**
+     * the content of a tar entry, closing it doesn't close the archive.
+     */
+    private static class EntryInputStream extends FilterInputStream {
+        private long remaining;
+        private final long padding;
+
+        EntryInputStream(InputStream in, long size, long padding) {
+            super(in);
+            this.remaining = size;
+            this.padding = padding;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int length = in.read(b, off, (int) Math.min(len, remaining));
+            if (length > 0) {
+                remaining -= length;
+            }
+            return length;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
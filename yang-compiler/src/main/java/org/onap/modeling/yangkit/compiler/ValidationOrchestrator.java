@@ -0,0 +1,200 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yangcentral.yangkit.common.api.validate.ValidatorRecord;
+import org.yangcentral.yangkit.common.api.validate.ValidatorResult;
+import org.yangcentral.yangkit.common.api.validate.ValidatorResultBuilder;
+import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
+import org.yangcentral.yangkit.model.api.stmt.Module;
+
+
+/**
+ * build and validate validation units, serially or in parallel, and merge the validator results.
+ * The unit of parallelism and timing is a schema context, a unit is validated serially by yangkit.
+ * Every validated schema context is handed to a handler one at a time, and it can be released after that,
+ * so the peak memory is bounded by the largest units which are validated concurrently.
+ * The units are validated on the shared compute executor of yang compiler, so the concurrency of validation
+ * and plugins is bounded build-wide by the same pool.
+ */
+public class ValidationOrchestrator {
+    private final Settings settings;
+    private final ForkJoinPool executor;
+    private final ReentrantLock handlerLock = new ReentrantLock();
+    private boolean retainRecords = true;
+
+    private static final Logger logger = LoggerFactory.getLogger(ValidationOrchestrator.class);
+
+    /**
+     * the handler of validated schema context.
+     */
+    public interface ValidatedContextHandler {
+        /**
+         * handle a validated schema context, it's never invoked concurrently.
+         *
+         * @param unit            validation unit
+         * @param schemaContext   yang schema context of the unit
+         * @param validatorResult validator result of the unit
+         */
+        void handle(ValidationUnit unit, YangSchemaContext schemaContext, ValidatorResult validatorResult);
+    }
+
+    /**
+     * the constructor.
+     *
+     * @param settings settings
+     * @param executor the executor which units are validated on, its parallelism bounds the number of units
+     *                 validated concurrently, null means serial validation on the calling thread
+     */
+    public ValidationOrchestrator(Settings settings, ForkJoinPool executor) {
+        this.settings = settings;
+        this.executor = executor;
+    }
+
+    public boolean isRetainRecords() {
+        return retainRecords;
+    }
+
+    /**
+     * whether retain the validator records of all units in the merged result. Validator records refer to the
+     * statements of schema context, so retaining them will keep all schema contexts in memory.
+     *
+     * @param retainRecords true if the validator records should be merged
+     */
+    public void setRetainRecords(boolean retainRecords) {
+        this.retainRecords = retainRecords;
+    }
+
+    /**
+     * validate the units. The larger units are scheduled first when validating in parallel.
+     *
+     * @param units   validation units
+     * @param handler the handler of validated schema context, it can be null
+     * @return validation report
+     * @throws RuntimeException if any unit fails to be built or handled, it's thrown after all units are finished
+     */
+    public ValidationReport validate(List<ValidationUnit> units, ValidatedContextHandler handler) {
+        ValidatorResultBuilder validatorResultBuilder = new ValidatorResultBuilder();
+        List<ValidationReport.Timing> timings = Collections.synchronizedList(new ArrayList<>());
+        if (executor == null || executor.getParallelism() == 1 || units.size() <= 1) {
+            for (ValidationUnit unit : units) {
+                validate(unit, handler, validatorResultBuilder, timings);
+            }
+            return new ValidationReport(validatorResultBuilder.build(), timings);
+        }
+        List<ValidationUnit> scheduled = new ArrayList<>(units);
+        Collections.sort(scheduled,
+                (left, right) -> Integer.compare(right.getModuleNames().size(), left.getModuleNames().size()));
+        List<Future<?>> futures = new ArrayList<>();
+        for (ValidationUnit unit : scheduled) {
+            futures.add(executor.submit(() -> validate(unit, handler, validatorResultBuilder, timings)));
+        }
+        //all units are waited for, so no unit is still running when the failure is propagated
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                logger.error(e.getCause().getMessage());
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return new ValidationReport(validatorResultBuilder.build(), timings);
+    }
+
+    private void validate(ValidationUnit unit, ValidatedContextHandler handler,
+                          ValidatorResultBuilder validatorResultBuilder, List<ValidationReport.Timing> timings) {
+        logger.info("build yang schema context for " + unit.getName() + ".");
+        long begin = System.currentTimeMillis();
+        YangSchemaContext schemaContext;
+        try {
+            schemaContext = unit.build(settings);
+        } catch (YangCompilerException e) {
+            throw new RuntimeException("fail to build yang schema context for " + unit.getName() + ":"
+                    + e.getMessage(), e);
+        }
+        long built = System.currentTimeMillis();
+        logger.info("validate yang schema context for " + unit.getName() + ".");
+        ValidatorResult validatorResult = schemaContext.validate();
+        long validated = System.currentTimeMillis();
+        List<String> moduleNames = unit.getModuleNames();
+        if (moduleNames.isEmpty()) {
+            moduleNames = new ArrayList<>();
+            for (Module module : schemaContext.getModules()) {
+                moduleNames.add(module.getArgStr());
+            }
+        }
+        timings.add(new ValidationReport.Timing(unit.getName(), moduleNames, built - begin, validated - built,
+                validatorResult.getRecords().size()));
+        lockHandler();
+        try {
+            if (retainRecords || !validatorResult.isOk()) {
+                for (ValidatorRecord<?, ?> record : validatorResult.getRecords()) {
+                    validatorResultBuilder.addRecord(record);
+                }
+            }
+            if (handler != null) {
+                handler.handle(unit, schemaContext, validatorResult);
+            }
+        } finally {
+            handlerLock.unlock();
+        }
+    }
+
+    /**
+     * acquire the lock of handler. A worker of compute executor waits for it as a managed blocker, so the pool
+     * is compensated while the handler (which calls plugins on the same pool) is running on another worker.
+     */
+    private void lockHandler() {
+        try {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean isReleasable() {
+                    return handlerLock.tryLock();
+                }
+
+                @Override
+                public boolean block() {
+                    handlerLock.lock();
+                    return true;
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
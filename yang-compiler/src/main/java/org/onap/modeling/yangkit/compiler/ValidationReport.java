@@ -0,0 +1,137 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.yangcentral.yangkit.common.api.validate.ValidatorResult;
+
+
+/**
+ * the merged result of validation units, and the timing of every unit. The timings are measured per unit
+ * (a whole schema context), yangkit validates a schema context as a whole, so the timing of a unit is per module
+ * only in per-module validation, where every unit is a main module(with its sub modules). Otherwise the modules
+ * of a unit are only listed to identify it.
+ */
+public class ValidationReport {
+    private final ValidatorResult validatorResult;
+    private final List<Timing> timings;
+
+    /**
+     * the constructor.
+     *
+     * @param validatorResult merged validator result
+     * @param timings         the timing of every validation unit
+     */
+    public ValidationReport(ValidatorResult validatorResult, List<Timing> timings) {
+        this.validatorResult = validatorResult;
+        this.timings = timings;
+    }
+
+    /**
+     * get the merged validator result.
+     *
+     * @return validator result
+     */
+    public ValidatorResult getValidatorResult() {
+        return validatorResult;
+    }
+
+    /**
+     * get the timings of validation units, ordered by validation time (the slowest first).
+     *
+     * @return the list of timings
+     */
+    public List<Timing> getTimings() {
+        List<Timing> sorted = new ArrayList<>(timings);
+        Collections.sort(sorted, (left, right) -> Long.compare(right.getValidateTime(), left.getValidateTime()));
+        return sorted;
+    }
+
+    /**
+     * get the validation timing breakdown string.
+     *
+     * @return timing breakdown
+     */
+    public String getTimingBreakdown() {
+        StringBuilder sb =
+                new StringBuilder("validation timing breakdown per unit(build ms/validate ms/records):\n");
+        for (Timing timing : getTimings()) {
+            sb.append("  ");
+            sb.append(timing.getUnitName());
+            sb.append(":");
+            sb.append(timing.getBuildTime());
+            sb.append("/");
+            sb.append(timing.getValidateTime());
+            sb.append("/");
+            sb.append(timing.getRecords());
+            if (!timing.getModuleNames().isEmpty()) {
+                sb.append(" ");
+                sb.append(timing.getModuleNames());
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    public static class Timing {
+        private final String unitName;
+        private final List<String> moduleNames;
+        private final long buildTime;
+        private final long validateTime;
+        private final int records;
+
+        /**
+         * the constructor.
+         *
+         * @param unitName     the name of validation unit
+         * @param moduleNames  the names of modules in validation unit
+         * @param buildTime    the time(ms) of building schema context
+         * @param validateTime the time(ms) of validating schema context
+         * @param records      the number of validator records
+         */
+        public Timing(String unitName, List<String> moduleNames, long buildTime, long validateTime, int records) {
+            this.unitName = unitName;
+            this.moduleNames = moduleNames;
+            this.buildTime = buildTime;
+            this.validateTime = validateTime;
+            this.records = records;
+        }
+
+        public String getUnitName() {
+            return unitName;
+        }
+
+        public List<String> getModuleNames() {
+            return moduleNames;
+        }
+
+        public long getBuildTime() {
+            return buildTime;
+        }
+
+        public long getValidateTime() {
+            return validateTime;
+        }
+
+        public int getRecords() {
+            return records;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.onap.modeling.yangkit.compiler.util.YangCompilerUtil;
+import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
+
+
+/**
+ * a unit of validation, it will be built and validated in its own yang schema context.
+ */
+public class ValidationUnit {
+    private final String name;
+    private final List<Source> sources;
+    private final List<String> moduleNames = new ArrayList<>();
+
+    /**
+     * the constructor.
+     *
+     * @param name    the name of validation unit
+     * @param sources the sources to build the schema context of this unit
+     */
+    public ValidationUnit(String name, List<Source> sources) {
+        this.name = name;
+        this.sources = sources;
+    }
+
+    /**
+     * get the name of validation unit.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * get the names of modules which belong to this unit, it's empty if the modules are not known before building.
+     *
+     * @return the list of module names
+     */
+    public List<String> getModuleNames() {
+        return moduleNames;
+    }
+
+    /**
+     * set the names of modules which belong to this unit.
+     *
+     * @param moduleNames the list of module names
+     */
+    public void setModuleNames(List<String> moduleNames) {
+        this.moduleNames.clear();
+        this.moduleNames.addAll(moduleNames);
+    }
+
+    /**
+     * build the schema context of this unit.
+     *
+     * @param settings settings
+     * @return yang schema context
+     * @throws YangCompilerException if the sources can not be built
+     */
+    public YangSchemaContext build(Settings settings) throws YangCompilerException {
+        return YangCompilerUtil.buildSchemaContext(sources, settings);
+    }
+
+    /**
+     * create a validation unit from module cluster.
+     *
+     * @param name    the name of validation unit
+     * @param cluster module cluster
+     * @return validation unit
+     */
+    public static ValidationUnit fromCluster(String name, ModuleCluster cluster) {
+        ValidationUnit unit = new ValidationUnit(name, cluster.getSources());
+        unit.setModuleNames(cluster.getModuleNames());
+        return unit;
+    }
+}
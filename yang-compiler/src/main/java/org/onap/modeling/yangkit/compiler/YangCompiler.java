@@ -17,26 +17,49 @@ limitations under the License.
 package org.onap.modeling.yangkit.compiler;
 
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.onap.modeling.yangkit.catalog.ModuleInfo;
+import org.onap.modeling.yangkit.compiler.plugin.PluginCacheKey;
 import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPlugin;
 import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPluginParameter;
+import org.onap.modeling.yangkit.compiler.plugin.YangSchemaVisitor;
+import org.onap.modeling.yangkit.compiler.schema.CompactSchemaTree;
+import org.onap.modeling.yangkit.compiler.schema.SchemaTraversal;
 import org.onap.modeling.yangkit.compiler.util.YangCompilerUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yangcentral.yangkit.base.YangElement;
+import org.yangcentral.yangkit.common.api.exception.Severity;
 import org.yangcentral.yangkit.common.api.validate.ValidatorRecord;
 import org.yangcentral.yangkit.common.api.validate.ValidatorResult;
 import org.yangcentral.yangkit.common.api.validate.ValidatorResultBuilder;
 import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
 import org.yangcentral.yangkit.model.api.stmt.Module;
-import org.yangcentral.yangkit.model.api.stmt.YangStatement;
-import org.yangcentral.yangkit.utils.file.FileUtil;
 import org.yangcentral.yangkit.writter.YangFormatter;
 import org.yangcentral.yangkit.writter.YangWriter;
 
@@ -51,6 +74,22 @@ public class YangCompiler {
 
     private boolean install;
 
+    private YangSchemaContext compactSchemaContext;
+    private CompactSchemaTree compactSchemaTree;
+    private YangSchemaContext fingerprintSchemaContext;
+    private ModuleFingerprints moduleFingerprints;
+
+    private OutputSink outputSink;
+    private OutputSink partitionSink;
+    private final OutputSink directOutputSink = new OutputSink();
+    private DiagnosticsWriter diagnosticsWriter;
+    private LocalRepositoryIndex localRepositoryIndex;
+
+    private final Map<Plugin, Future<?>> prepares = new ConcurrentHashMap<>();
+
+    private ForkJoinPool computeExecutor;
+    private ExecutorService ioExecutor;
+
     private static final Logger logger = LoggerFactory.getLogger(YangCompiler.class);
 
     public YangCompiler() {
@@ -118,6 +157,212 @@ public class YangCompiler {
         this.install = install;
     }
 
+    /**
+     * get the compact read-only schema tree of a validated schema context. It's built when it's requested
+     * for the first time, and shared by all plugins which are called for the same schema context.
+     *
+     * @param schemaContext validated yang schema context
+     * @return compact schema tree
+     */
+    public synchronized CompactSchemaTree getCompactSchemaTree(YangSchemaContext schemaContext) {
+        if (compactSchemaContext != schemaContext) {
+            compactSchemaTree = CompactSchemaTree.build(schemaContext);
+            compactSchemaContext = schemaContext;
+        }
+        return compactSchemaTree;
+    }
+
+    /**
+     * get the module fingerprints of a validated schema context. It's created when it's requested
+     * for the first time, and shared by all plugins which are called for the same schema context.
+     *
+     * @param schemaContext validated yang schema context
+     * @return module fingerprints
+     */
+    public synchronized ModuleFingerprints getModuleFingerprints(YangSchemaContext schemaContext) {
+        if (fingerprintSchemaContext != schemaContext) {
+            moduleFingerprints = new ModuleFingerprints(schemaContext);
+            fingerprintSchemaContext = schemaContext;
+        }
+        return moduleFingerprints;
+    }
+
+    private synchronized void releaseSchemaViews() {
+        compactSchemaContext = null;
+        compactSchemaTree = null;
+        fingerprintSchemaContext = null;
+        moduleFingerprints = null;
+    }
+
+    private int getConcurrency() {
+        return settings == null ? Runtime.getRuntime().availableProcessors() : settings.getConcurrency();
+    }
+
+    /**
+     * get the shared work-stealing executor for computation, its parallelism is bounded by the concurrency
+     * of settings. Plugins SHOULD use it instead of creating their own thread pools.
+     *
+     * @return compute executor
+     */
+    public synchronized ForkJoinPool getComputeExecutor() {
+        if (computeExecutor == null) {
+            computeExecutor = new ForkJoinPool(getConcurrency());
+        }
+        return computeExecutor;
+    }
+
+    /**
+     * get the shared executor for blocking io, its size is bounded by the io concurrency of settings.
+     *
+     * @return io executor
+     */
+    public synchronized ExecutorService getIoExecutor() {
+        if (ioExecutor == null) {
+            int ioConcurrency = settings == null ? 4 : settings.getIoConcurrency();
+            AtomicInteger index = new AtomicInteger();
+            ioExecutor = Executors.newFixedThreadPool(ioConcurrency, runnable -> {
+                Thread thread = new Thread(runnable, "yang-compiler-io-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return ioExecutor;
+    }
+
+    private synchronized void shutdownExecutors() {
+        if (computeExecutor != null) {
+            computeExecutor.shutdown();
+            computeExecutor = null;
+        }
+        if (ioExecutor != null) {
+            ioExecutor.shutdown();
+            ioExecutor = null;
+        }
+        if (settings != null) {
+            settings.setIoExecutor(null);
+        }
+    }
+
+    /**
+     * get the output sink which plugins write their outputs to. During compilation, the writes are
+     * asynchronous and batched, and they are flushed at the end of compilation. Otherwise, the writes are
+     * synchronous. In partitioned compilation, it's the partition of the cluster being processed, and plugins
+     * MUST resolve their output paths by it.
+     *
+     * @return output sink
+     */
+    public synchronized OutputSink getOutputSink() {
+        if (partitionSink != null) {
+            return partitionSink;
+        }
+        return outputSink == null ? directOutputSink : outputSink;
+    }
+
+    private synchronized void openOutputSink() {
+        OutputArchive archive = null;
+        if (buildOption.getOutputArchive() != null) {
+            try {
+                archive = OutputArchive.open(new File(buildOption.getOutputArchive()));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        outputSink = new OutputSink(getIoExecutor(), archive);
+    }
+
+    private synchronized void setPartitionSink(OutputSink partitionSink) {
+        this.partitionSink = partitionSink;
+    }
+
+    private void closeOutputSink() {
+        OutputSink sink;
+        synchronized (this) {
+            sink = outputSink;
+            outputSink = null;
+            partitionSink = null;
+        }
+        try {
+            sink.close();
+            if (sink.isArchive()) {
+                logger.info("write outputs to " + buildOption.getOutputArchive());
+            }
+        } catch (YangCompilerException e) {
+            logger.error(e.getMessage());
+        }
+    }
+
+    private synchronized void openDiagnostics() {
+        if (buildOption.getDiagnostics() == null) {
+            return;
+        }
+        File file = new File(buildOption.getDiagnostics());
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try {
+            diagnosticsWriter = DiagnosticsWriter.open(new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(file), StandardCharsets.UTF_8)), DiagnosticsWriter.getFormat(file.getName()));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private synchronized void closeDiagnostics() {
+        if (diagnosticsWriter == null) {
+            return;
+        }
+        try {
+            diagnosticsWriter.close();
+            logger.info("write " + diagnosticsWriter.getErrorCount() + " error(s) to " + buildOption.getDiagnostics());
+        } catch (IOException e) {
+            logger.error("fail to write diagnostics:" + e.getMessage());
+        }
+        diagnosticsWriter = null;
+    }
+
+    /**
+     * report the records of validator result, they are written to diagnostics file if it's specified,
+     * otherwise logged one by one.
+     *
+     * @param validatorResult validator result
+     * @param modules         the modules which the records should belong to, null means all records are reported
+     * @return the number of reported errors
+     */
+    private synchronized int reportDiagnostics(ValidatorResult validatorResult, Set<Module> modules) {
+        if (diagnosticsWriter != null) {
+            try {
+                return diagnosticsWriter.write(validatorResult, modules);
+            } catch (IOException e) {
+                logger.error("fail to write diagnostics:" + e.getMessage());
+            }
+        }
+        int errors = 0;
+        for (ValidatorRecord<?, ?> record : validatorResult.getRecords()) {
+            if (!DiagnosticsWriter.accept(record, modules)) {
+                continue;
+            }
+            if (record.getSeverity() == Severity.ERROR) {
+                errors++;
+                logger.error(record.toString());
+            } else {
+                logger.info(record.toString());
+            }
+        }
+        return errors;
+    }
+
+    private PluginOutputCache getPluginOutputCache() {
+        if (!buildOption.isPluginCache() || settings == null || settings.getLocalRepository() == null) {
+            return null;
+        }
+        if (getOutputSink().isArchive()) {
+            logger.warn("plugin cache is not supported when the outputs are written into an archive.");
+            return null;
+        }
+        return new PluginOutputCache(new File(settings.getLocalRepository(), ".plugin-cache"));
+    }
+
     /**
      * build schema context from build option.
      *
@@ -134,19 +379,52 @@ public class YangCompiler {
         }
     }
 
-    private void saveModule(String fileName, List<YangElement> elements) {
-        StringBuilder sb = new StringBuilder();
-        for (YangElement element : elements) {
-            String yangStr = YangWriter.toYangString(element, YangFormatter.getPrettyYangFormatter(), null);
-            sb.append(yangStr);
-            sb.append("\n");
+    private synchronized LocalRepositoryIndex getLocalRepositoryIndex() {
+        if (localRepositoryIndex == null) {
+            localRepositoryIndex = LocalRepositoryIndex.build(new File(settings.getLocalRepository()));
         }
+        return localRepositoryIndex;
+    }
 
-        fileName = settings.getLocalRepository() + File.separator + fileName;
-        FileUtil.writeUtf8File(fileName, sb.toString());
+    /**
+     * save module to local repository. The original bytes are copied if the module is parsed from a yang file,
+     * otherwise the parse result is serialized to the file element by element.
+     *
+     * @param module module
+     * @param target target file
+     * @throws IOException io exception
+     */
+    private static void saveModule(Module module, File target) throws IOException {
+        String source = module.getElementPosition() == null ? null : module.getElementPosition().getSource();
+        if (source != null && source.endsWith(".yang")) {
+            File sourceFile = new File(source);
+            if (sourceFile.isFile()) {
+                Files.copy(sourceFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                return;
+            }
+        }
+        List<YangElement> elements = module.getContext().getSchemaContext().getParseResult().get(source);
+        if (elements == null) {
+            throw new IOException("the parse result of " + module.getArgStr() + " is not available.");
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(target),
+                StandardCharsets.UTF_8))) {
+            for (YangElement element : elements) {
+                writer.write(YangWriter.toYangString(element, YangFormatter.getPrettyYangFormatter(), null));
+                writer.write("\n");
+            }
+        }
     }
 
+    /**
+     * install the modules which are not in local repository, the presence is checked against the index of local
+     * repository, and the modules are saved in parallel on io executor.
+     *
+     * @param modules modules to be installed
+     */
     private void installModules(List<Module> modules) {
+        LocalRepositoryIndex index = getLocalRepositoryIndex();
+        List<Callable<String>> installs = new ArrayList<>();
         for (Module module : modules) {
             String moduleName = module.getArgStr();
             String revision = "";
@@ -154,16 +432,77 @@ public class YangCompiler {
                 revision = module.getCurRevisionDate().get();
             }
             ModuleInfo moduleInfo = new ModuleInfo(moduleName, revision, null);
-            ModuleInfo targetModuleInfo = YangCompilerUtil.getSchemaFromLocal(moduleInfo, settings);
-            if (targetModuleInfo == null) {
-                //if not found, save this module to local repository
-                List<YangElement> elements = module.getContext().getSchemaContext().getParseResult()
-                        .get(module.getElementPosition().getSource());
-                saveModule(moduleInfo.getModuleInfo() + ".yang", elements);
-                logger.info("install " + moduleInfo.getModuleInfo() + ".yang" + " to " + settings.getLocalRepository());
+            synchronized (index) {
+                if (index.contains(moduleName, revision)) {
+                    continue;
+                }
+                index.add(moduleName, revision);
             }
+            String fileName = moduleInfo.getModuleInfo() + ".yang";
+            installs.add(() -> {
+                saveModule(module, new File(index.getLocalRepository(), fileName));
+                return fileName;
+            });
+        }
+        if (installs.isEmpty()) {
+            return;
+        }
+        try {
+            for (Future<String> future : getIoExecutor().invokeAll(installs)) {
+                try {
+                    logger.info("install " + future.get() + " to " + settings.getLocalRepository());
+                } catch (ExecutionException e) {
+                    logger.error("fail to install module:" + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("installation is interrupted.");
+        }
+    }
 
+    private void saveSnapshot(YangSchemaContext schemaContext, String snapshotOutput) {
+        try {
+            SchemaSnapshot.create(schemaContext).write(new File(snapshotOutput));
+            logger.info("save schema snapshot to " + snapshotOutput);
+        } catch (YangCompilerException | IOException e) {
+            logger.error("fail to save schema snapshot:" + e.getMessage());
+        }
+    }
+
+    private boolean isDocumentationRequired() {
+        for (Plugin pluginBuilder : getBuildOption().getPlugins()) {
+            PluginInfo pluginInfo = getPluginInfo(pluginBuilder.getName());
+            if (pluginInfo != null && pluginInfo.getPlugin().requiresDocumentation()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * release the documentation text and raw parse results of import-only modules, they are never used
+     * after validation. If no plugin needs documentation text, the documentation text of all modules is released,
+     * unless the modules will be installed (they are serialized from parse results).
+     *
+     * @param schemaContext validated yang schema context
+     */
+    private void releaseUnusedText(YangSchemaContext schemaContext) {
+        int statements = 0;
+        int parseResults = 0;
+        for (Module module : schemaContext.getImportOnlyModules()) {
+            if (YangCompilerUtil.releaseParseResult(schemaContext, module)) {
+                parseResults++;
+            }
+            statements += YangCompilerUtil.releaseDocumentation(module);
         }
+        if (!install && !isDocumentationRequired()) {
+            for (Module module : schemaContext.getModules()) {
+                statements += YangCompilerUtil.releaseDocumentation(module);
+            }
+        }
+        logger.info("lean mode: release " + statements + " documentation statements and " + parseResults
+                + " parse results.");
     }
 
     /**
@@ -174,63 +513,532 @@ public class YangCompiler {
             logger.warn("build.json is not found.");
             return;
         }
+        try {
+            openOutputSink();
+            openDiagnostics();
+            startPrepare();
+            if (settings != null) {
+                //the sources read their inputs with the shared io executor
+                settings.setIoExecutor(getIoExecutor());
+            }
+            if (buildOption.isPartition()) {
+                if (!"serial".equals(buildOption.getValidation())) {
+                    logger.warn("the validation mode:" + buildOption.getValidation()
+                            + " is ignored by partitioned compilation.");
+                }
+                compilePartitioned();
+            } else if ("per-module".equals(buildOption.getValidation())) {
+                compilePerModule();
+            } else {
+                if (!"serial".equals(buildOption.getValidation())) {
+                    logger.warn("unknown validation mode:" + buildOption.getValidation() + ", serial is used.");
+                }
+                compileWhole();
+            }
+        } finally {
+            if (getOutputSink() != directOutputSink) {
+                closeOutputSink();
+            }
+            closeDiagnostics();
+            localRepositoryIndex = null;
+            prepares.clear();
+            shutdownExecutors();
+        }
+    }
+
+    /**
+     * compile all modules in one schema context. It's a single validation unit, so it's validated serially
+     * and timed as a whole, only partitioned compilation and per-module validation validate in parallel.
+     */
+    private void compileWhole() {
         logger.info("build yang schema context.");
-        YangSchemaContext schemaContext = buildSchemaContext();
-        ValidatorResult validatorResult = schemaContext.validate();
-        if (!validatorResult.isOk()) {
-            logger.error("there are some errors when validating yang schema context.");
-            System.out.println(validatorResult);
+        ValidationUnit unit = new ValidationUnit("yang schema context", buildOption.getSources());
+        ValidationOrchestrator orchestrator = new ValidationOrchestrator(settings, getComputeExecutor());
+        ValidationReport report = orchestrator.validate(Collections.singletonList(unit),
+                (validationUnit, schemaContext, validatorResult) ->
+                        processSchemaContext(schemaContext, validatorResult));
+        logger.info(report.getTimingBreakdown());
+    }
+
+    /**
+     * validate every main module(with its sub modules) in its own schema context, the modules it depends on are
+     * parsed into the schema context as import-only modules. The modules are validated level by level in the order
+     * of dependency (see ModuleCluster.splitByModule), the modules of a level are validated in parallel on the
+     * compute executor and timed per module, and a module is skipped if any module it depends on is invalid,
+     * so an error is reported once, by the module it belongs to. The modules which a module depends on are
+     * validated again in its schema context, so it's more work than serial validation in total. If all modules are
+     * valid and the whole schema context is needed (by plugins, install or snapshot), it's built and validated
+     * once more, and the records of modules are not reported again.
+     */
+    private void compilePerModule() {
+        logger.info("parse yang sources for per-module validation.");
+        YangSchemaContext schemaContext = null;
+        try {
+            for (Source source : buildOption.getSources()) {
+                schemaContext = source.buildSource(settings, schemaContext, false);
+            }
+        } catch (YangCompilerException e) {
+            throw new RuntimeException(e);
+        }
+        List<List<ModuleCluster>> levels = ModuleCluster.splitByModule(schemaContext);
+        schemaContext = null;
+        ValidationOrchestrator orchestrator = new ValidationOrchestrator(settings, getComputeExecutor());
+        //the records of a module are reported when it's validated
+        orchestrator.setRetainRecords(false);
+        //it's only changed by the handler, which is never invoked concurrently
+        Set<ModuleCluster> invalid = new HashSet<>();
+        List<ValidationReport.Timing> timings = new ArrayList<>();
+        for (List<ModuleCluster> level : levels) {
+            List<ValidationUnit> units = new ArrayList<>();
+            Map<ValidationUnit, ModuleCluster> clusters = new IdentityHashMap<>();
+            for (ModuleCluster cluster : level) {
+                if (!Collections.disjoint(cluster.getDependencies(), invalid)) {
+                    logger.warn("skip the validation of module:" + cluster.getName()
+                            + ", the modules it depends on are invalid.");
+                    invalid.add(cluster);
+                    continue;
+                }
+                ValidationUnit unit = ValidationUnit.fromCluster(cluster.getName(), cluster);
+                units.add(unit);
+                clusters.put(unit, cluster);
+            }
+            ValidationReport report = orchestrator.validate(units, (unit, moduleContext, validatorResult) -> {
+                //the modules it depends on are import-only, their records are reported by their own units
+                int errors = reportDiagnostics(validatorResult,
+                        DiagnosticsWriter.toModuleSet(moduleContext.getModules()));
+                if (errors > 0) {
+                    invalid.add(clusters.get(unit));
+                }
+            });
+            timings.addAll(report.getTimings());
+        }
+        logger.info(new ValidationReport(new ValidatorResultBuilder().build(), timings).getTimingBreakdown());
+        if (!invalid.isEmpty()) {
+            logger.error("there are some errors when validating yang modules.");
             return;
         }
+        if (buildOption.getPlugins().isEmpty() && !install && buildOption.getSnapshotOutput() == null) {
+            return;
+        }
+        logger.info("build yang schema context.");
+        ValidationUnit unit = new ValidationUnit("yang schema context", buildOption.getSources());
+        ValidationReport report = new ValidationOrchestrator(settings, getComputeExecutor()).validate(
+                Collections.singletonList(unit), (validationUnit, wholeContext, validatorResult) ->
+                        processSchemaContext(wholeContext, validatorResult, true));
+        logger.info(report.getTimingBreakdown());
+    }
+
+    /**
+     * split the modules to be compiled into independent clusters (connected components of import graph),
+     * and compile every cluster in its own schema context in parallel. The plugins are invoked per cluster,
+     * and the outputs of every cluster are resolved into its own directory (cluster-N, see OutputSink.resolve),
+     * so no cluster overwrites the outputs of another one. The sources are parsed twice: the statements of
+     * yangkit are bound to the schema context they are parsed into, so the parse of partition can not be
+     * reused by the schema context of a cluster. It's only parsed (not validated), and it's released before any
+     * cluster is built.
+     */
+    private void compilePartitioned() {
+        logger.info("parse yang sources for partition.");
+        YangSchemaContext schemaContext = null;
+        try {
+            for (Source source : buildOption.getSources()) {
+                schemaContext = source.buildSource(settings, schemaContext, false);
+            }
+        } catch (YangCompilerException e) {
+            throw new RuntimeException(e);
+        }
+        if (buildOption.getSnapshotOutput() != null) {
+            logger.warn("schema snapshot is not supported by partitioned compilation.");
+        }
+        List<ModuleCluster> clusters = ModuleCluster.partition(schemaContext);
+        logger.info("find " + clusters.size() + " independent module clusters.");
+        //the whole schema context is not needed any more, every cluster will build its own schema context
+        schemaContext = null;
+        List<ValidationUnit> units = new ArrayList<>();
+        Map<ValidationUnit, String> partitions = new IdentityHashMap<>();
+        for (int i = 0; i < clusters.size(); i++) {
+            ValidationUnit unit =
+                    ValidationUnit.fromCluster("cluster " + (i + 1) + "/" + clusters.size(), clusters.get(i));
+            units.add(unit);
+            partitions.put(unit, "cluster-" + (i + 1));
+        }
+        //the clusters are validated on the compute executor, which also runs the plugins of clusters
+        ValidationOrchestrator orchestrator = new ValidationOrchestrator(settings, getComputeExecutor());
+        //the records of a cluster are reported when the cluster is processed, retaining them would keep
+        //every cluster's schema context in memory
+        orchestrator.setRetainRecords(false);
+        ValidationReport report = orchestrator.validate(units, (unit, clusterContext, validatorResult) -> {
+            logger.info("process " + unit.getName() + ".");
+            setPartitionSink(getOutputSink().partition(partitions.get(unit)));
+            try {
+                processSchemaContext(clusterContext, validatorResult);
+            } finally {
+                setPartitionSink(null);
+            }
+        });
+        logger.info(report.getTimingBreakdown());
+    }
+
+    /**
+     * call the plugins in the order of build option. The schema tree is traversed only once for the visitors
+     * of all plugins which provide a visitor (per module on the compute executor if all visitors are concurrent),
+     * and they are finished in the order of build option before other plugins
+     * are called. The consecutive isolated plugins are called concurrently, every one on its own worker thread with
+     * its own context class loader, and the results are reported in the order of build option. A plugin which is
+     * not isolated is called only after all plugins before it are finished.
+     *
+     * @param schemaContext validated yang schema context
+     */
+    private void callPlugins(YangSchemaContext schemaContext) {
+        List<PluginCall> pluginCalls = new ArrayList<>();
+        List<PluginCall> visitorCalls = new ArrayList<>();
+        PluginOutputCache pluginOutputCache = getPluginOutputCache();
         for (Plugin pluginBuilder : getBuildOption().getPlugins()) {
             PluginInfo pluginInfo = getPluginInfo(pluginBuilder.getName());
             if (null == pluginInfo) {
                 logger.warn("can not find a plugin named:" + pluginBuilder.getName());
                 continue;
             }
-            YangCompilerPlugin plugin = pluginInfo.getPlugin();
-            ClassLoader curClassLoader = Thread.currentThread().getContextClassLoader();
-            ClassLoader pluginClassLoader = curClassLoader;
-            if (pluginInfo.getClassLoader() != null) {
-                pluginClassLoader = pluginInfo.getClassLoader();
-                Thread.currentThread().setContextClassLoader(pluginClassLoader);
+            PluginCall pluginCall = new PluginCall(pluginInfo, pluginBuilder, pluginOutputCache);
+            if (pluginCall.restore(schemaContext)) {
+                logger.info("the outputs of plugin:" + pluginInfo.getPluginName() + " are restored from cache.");
+                continue;
             }
-            try {
-                List<YangCompilerPluginParameter> parameters = new ArrayList<>();
-                if (!pluginBuilder.getParameters().isEmpty()) {
-                    for (Parameter parameterBuilder : pluginBuilder.getParameters()) {
-                        YangCompilerPluginParameter parameter = plugin.getParameter(
-                                parameterBuilder.getName(), parameterBuilder.getValue());
-                        if (parameter != null) {
-                            parameters.add(parameter);
-                        }
+            if (pluginCall.createVisitor(schemaContext)) {
+                visitorCalls.add(pluginCall);
+            } else {
+                pluginCalls.add(pluginCall);
+            }
+        }
+        visit(visitorCalls, schemaContext);
+        List<PluginCall> group = new ArrayList<>();
+        for (PluginCall pluginCall : pluginCalls) {
+            if (!pluginCall.pluginInfo.getPlugin().isIsolated()) {
+                callConcurrently(group, schemaContext);
+                logger.info("call plugin:" + pluginCall.pluginInfo.getPluginName() + " ...");
+                pluginCall.call(schemaContext);
+                pluginCall.report();
+                continue;
+            }
+            for (PluginCall candidate : group) {
+                if (candidate.pluginInfo == pluginCall.pluginInfo) {
+                    //the same plugin instance is never called concurrently
+                    callConcurrently(group, schemaContext);
+                    break;
+                }
+            }
+            group.add(pluginCall);
+        }
+        callConcurrently(group, schemaContext);
+    }
+
+    private void visit(List<PluginCall> visitorCalls, YangSchemaContext schemaContext) {
+        if (visitorCalls.isEmpty()) {
+            return;
+        }
+        List<YangSchemaVisitor> visitors = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (PluginCall pluginCall : visitorCalls) {
+            if (pluginCall.visitor != null) {
+                visitors.add(pluginCall.visitor);
+                names.add(pluginCall.pluginInfo.getPluginName());
+            }
+        }
+        logger.info("traverse schema tree for plugins:" + names + " ...");
+        //the main modules are traversed in parallel if all visitors are concurrent
+        SchemaTraversal.traverse(schemaContext, visitors, getComputeExecutor());
+        for (PluginCall pluginCall : visitorCalls) {
+            logger.info("call plugin:" + pluginCall.pluginInfo.getPluginName() + " ...");
+            pluginCall.finish();
+            pluginCall.report();
+        }
+    }
+
+    private void callConcurrently(List<PluginCall> group, YangSchemaContext schemaContext) {
+        if (group.isEmpty()) {
+            return;
+        }
+        if (group.size() == 1) {
+            PluginCall pluginCall = group.get(0);
+            logger.info("call plugin:" + pluginCall.pluginInfo.getPluginName() + " ...");
+            pluginCall.call(schemaContext);
+            pluginCall.report();
+            group.clear();
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        for (PluginCall pluginCall : group) {
+            names.add(pluginCall.pluginInfo.getPluginName());
+        }
+        logger.info("call isolated plugins concurrently:" + names + " ...");
+        List<Future<?>> futures = new ArrayList<>();
+        for (PluginCall pluginCall : group) {
+            futures.add(getComputeExecutor().submit(() -> pluginCall.call(schemaContext)));
+        }
+        try {
+            for (int i = 0; i < group.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
                     }
+                    throw new RuntimeException(e.getCause());
                 }
-                logger.info("call plugin:" + pluginInfo.getPluginName() + " ...");
-                plugin.run(schemaContext, this, parameters);
-                logger.info("ok.");
-            } catch (YangCompilerException e) {
-                logger.error(e.getMessage());
+                logger.info("call plugin:" + group.get(i).pluginInfo.getPluginName() + " ...");
+                group.get(i).report();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            group.clear();
+        }
+    }
+
+    private interface PluginAction {
+        void apply(YangCompilerPlugin plugin, List<YangCompilerPluginParameter> parameters)
+                throws YangCompilerException;
+    }
+
+    /**
+     * execute an action of plugin with the context class loader of plugin and the parameters of build option.
+     */
+    private static void executePlugin(PluginInfo pluginInfo, Plugin pluginBuilder, PluginAction action)
+            throws YangCompilerException {
+        YangCompilerPlugin plugin = pluginInfo.getPlugin();
+        ClassLoader curClassLoader = Thread.currentThread().getContextClassLoader();
+        if (pluginInfo.getClassLoader() != null) {
+            Thread.currentThread().setContextClassLoader(pluginInfo.getClassLoader());
+        }
+        try {
+            List<YangCompilerPluginParameter> parameters = new ArrayList<>();
+            for (Parameter parameterBuilder : pluginBuilder.getParameters()) {
+                YangCompilerPluginParameter parameter = plugin.getParameter(
+                        parameterBuilder.getName(), parameterBuilder.getValue());
+                if (parameter != null) {
+                    parameters.add(parameter);
+                }
+            }
+            action.apply(plugin, parameters);
+        } finally {
+            Thread.currentThread().setContextClassLoader(curClassLoader);
+        }
+    }
+
+    /**
+     * start the prepare phase of all plugins of build option asynchronously, it runs concurrently with
+     * parsing and validating the schema context. It's run on io executor: the prepare phase is mostly
+     * blocking (e.g. reading the baseline sources of comparator), and it MUST NOT occupy the workers of
+     * compute executor, which validate the schema context.
+     */
+    private void startPrepare() {
+        for (Plugin pluginBuilder : getBuildOption().getPlugins()) {
+            PluginInfo pluginInfo = getPluginInfo(pluginBuilder.getName());
+            if (null == pluginInfo) {
+                continue;
+            }
+            prepares.put(pluginBuilder, getIoExecutor().submit(() -> {
+                executePlugin(pluginInfo, pluginBuilder,
+                        (plugin, parameters) -> plugin.prepare(YangCompiler.this, parameters));
+                return null;
+            }));
+        }
+    }
+
+    /**
+     * cancel the prepare phase of a plugin whose outputs are restored from cache, its result is not needed.
+     * It's not cancelled in partitioned compilation, the other clusters may still call the plugin.
+     *
+     * @param pluginBuilder the plugin of build option
+     */
+    private void cancelPrepare(Plugin pluginBuilder) {
+        if (getOutputSink().getPartition() != null) {
+            return;
+        }
+        Future<?> prepare = prepares.get(pluginBuilder);
+        if (prepare != null) {
+            prepare.cancel(true);
+        }
+    }
+
+    /**
+     * wait for the prepare phase of a plugin to be finished.
+     *
+     * @param pluginBuilder the plugin of build option
+     * @throws YangCompilerException if the prepare phase fails
+     */
+    private void awaitPrepare(Plugin pluginBuilder) throws YangCompilerException {
+        Future<?> prepare = prepares.get(pluginBuilder);
+        if (prepare == null || prepare.isCancelled()) {
+            //a plugin works without its prepare phase, it's only done in advance
+            return;
+        }
+        try {
+            prepare.get();
+        } catch (CancellationException e) {
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new YangCompilerException("interrupted when preparing plugin:" + pluginBuilder.getName());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof YangCompilerException) {
+                throw (YangCompilerException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new YangCompilerException(e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * a call of plugin, the result is kept until it's reported.
+     */
+    private class PluginCall {
+        private final PluginInfo pluginInfo;
+        private final Plugin pluginBuilder;
+        private final PluginOutputCache pluginOutputCache;
+        private PluginCacheKey cacheKey;
+        private YangSchemaVisitor visitor;
+        private YangCompilerException exception;
+
+        PluginCall(PluginInfo pluginInfo, Plugin pluginBuilder, PluginOutputCache pluginOutputCache) {
+            this.pluginInfo = pluginInfo;
+            this.pluginBuilder = pluginBuilder;
+            this.pluginOutputCache = pluginOutputCache;
+        }
+
+        /**
+         * restore the outputs of plugin from cache. The cache key doesn't depend on the prepare phase, so it's
+         * not waited for, and it's cancelled if the outputs are restored.
+         *
+         * @param schemaContext yang schema context
+         * @return true if the outputs are restored
+         */
+        boolean restore(YangSchemaContext schemaContext) {
+            if (pluginOutputCache == null) {
+                return false;
+            }
+            execute((plugin, parameters) -> cacheKey = plugin.getCacheKey(schemaContext, YangCompiler.this,
+                    parameters));
+            if (cacheKey == null) {
+                return false;
+            }
+            cacheKey.addComponent("plugin", pluginInfo.getPlugin().getClass().getName());
+            if (getOutputSink().getPartition() != null) {
+                cacheKey.addComponent("partition", getOutputSink().getPartition());
+            }
+            for (Parameter parameter : pluginBuilder.getParameters()) {
+                cacheKey.addComponent(parameter.getName(), String.valueOf(parameter.getValue()));
             }
-            if (pluginClassLoader != curClassLoader) {
-                Thread.currentThread().setContextClassLoader(curClassLoader);
+            if (!pluginOutputCache.restore(pluginInfo.getPluginName(), cacheKey, getOutputSink())) {
+                return false;
             }
+            cancelPrepare(pluginBuilder);
+            return true;
         }
-        ValidatorResultBuilder validatorResultBuilder = new ValidatorResultBuilder();
-        List<ValidatorRecord<?, ?>> records = validatorResult.getRecords();
-        for (ValidatorRecord<?, ?> record : records) {
-            if (record.getBadElement() instanceof YangStatement) {
-                YangStatement yangStatement = (YangStatement) record.getBadElement();
-                if (schemaContext.getModules().contains(yangStatement.getContext().getCurModule())) {
-                    validatorResultBuilder.addRecord(record);
+
+        private void store() {
+            if (pluginOutputCache != null && cacheKey != null && exception == null) {
+                try {
+                    //the outputs MUST be written before they are cached
+                    getOutputSink().flush();
+                } catch (YangCompilerException e) {
+                    logger.warn("the outputs of plugin:" + pluginInfo.getPluginName() + " are not cached, "
+                            + e.getMessage());
+                    return;
                 }
+                pluginOutputCache.store(pluginInfo.getPluginName(), cacheKey, getOutputSink());
+            }
+        }
+
+        /**
+         * create the visitor of plugin.
+         *
+         * @param schemaContext yang schema context
+         * @return true if the plugin is called by visitor (or it fails to create the visitor)
+         */
+        boolean createVisitor(YangSchemaContext schemaContext) {
+            try {
+                awaitPrepare(pluginBuilder);
+            } catch (YangCompilerException e) {
+                exception = e;
+                return true;
+            }
+            execute((plugin, parameters) -> visitor = plugin.createVisitor(schemaContext, YangCompiler.this,
+                    parameters));
+            return visitor != null || exception != null;
+        }
+
+        void finish() {
+            if (visitor != null) {
+                execute((plugin, parameters) -> visitor.finish());
+                visitor = null;
+                store();
+            }
+        }
+
+        void call(YangSchemaContext schemaContext) {
+            try {
+                awaitPrepare(pluginBuilder);
+            } catch (YangCompilerException e) {
+                exception = e;
+                return;
+            }
+            execute((plugin, parameters) -> plugin.run(schemaContext, YangCompiler.this, parameters));
+            store();
+        }
+
+        private void execute(PluginAction action) {
+            try {
+                executePlugin(pluginInfo, pluginBuilder, action);
+            } catch (YangCompilerException e) {
+                exception = e;
+            }
+        }
+
+        void report() {
+            if (exception != null) {
+                logger.error(exception.getMessage());
+            } else {
+                logger.info("ok.");
             }
         }
-        validatorResult = validatorResultBuilder.build();
-        if (install && validatorResult.isOk()) {
+    }
+
+    private void processSchemaContext(YangSchemaContext schemaContext, ValidatorResult validatorResult) {
+        processSchemaContext(schemaContext, validatorResult, false);
+    }
+
+    /**
+     * process the validated schema context: report the validation records, call plugins and install modules.
+     *
+     * @param schemaContext   yang schema context
+     * @param validatorResult validator result
+     * @param reported        whether the records of modules are already reported by per-module validation,
+     *                        they are reported again only if the schema context is invalid
+     */
+    private void processSchemaContext(YangSchemaContext schemaContext, ValidatorResult validatorResult,
+                                      boolean reported) {
+        if (!validatorResult.isOk()) {
+            logger.error("there are some errors when validating yang schema context.");
+            reportDiagnostics(validatorResult, null);
+            return;
+        }
+        if (buildOption.getSnapshotOutput() != null && !buildOption.isPartition()) {
+            saveSnapshot(schemaContext, buildOption.getSnapshotOutput());
+        }
+        if (buildOption.isLean()) {
+            releaseUnusedText(schemaContext);
+        }
+        callPlugins(schemaContext);
+        releaseSchemaViews();
+        int errors = reported ? 0
+                : reportDiagnostics(validatorResult, DiagnosticsWriter.toModuleSet(schemaContext.getModules()));
+        if (install && errors == 0) {
             installModules(schemaContext.getModules());
         }
-        logger.info(validatorResult.toString());
     }
 
 
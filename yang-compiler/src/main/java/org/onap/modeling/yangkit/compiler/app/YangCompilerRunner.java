@@ -26,13 +26,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.ServiceLoader;
 
 import org.onap.modeling.yangkit.compiler.BuildOption;
 import org.onap.modeling.yangkit.compiler.PluginInfo;
 import org.onap.modeling.yangkit.compiler.Settings;
 import org.onap.modeling.yangkit.compiler.YangCompiler;
+import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPluginProvider;
 import org.yangcentral.yangkit.utils.file.FileUtil;
 
 public class YangCompilerRunner {
@@ -50,31 +54,62 @@ public class YangCompilerRunner {
         return pluginInfos;
     }
 
+    /**
+     * discover plugin providers through {@link ServiceLoader}, only the providers are instantiated,
+     * the plugins will be created when they are referenced by build option.
+     *
+     * @return providers keyed by plugin name
+     */
+    private static Map<String, YangCompilerPluginProvider> discoverProviders() {
+        Map<String, YangCompilerPluginProvider> providers = new LinkedHashMap<>();
+        ServiceLoader<YangCompilerPluginProvider> serviceLoader = ServiceLoader.load(
+                YangCompilerPluginProvider.class, YangCompilerRunner.class.getClassLoader());
+        for (YangCompilerPluginProvider provider : serviceLoader) {
+            if (!providers.containsKey(provider.getName())) {
+                providers.put(provider.getName(), provider);
+            }
+        }
+        return providers;
+    }
+
+    private static void addPluginInfos(YangCompiler yangCompiler, List<PluginInfo> pluginInfos,
+                                       Map<String, YangCompilerPluginProvider> providers) {
+        for (PluginInfo pluginInfo : pluginInfos) {
+            if (pluginInfo != null) {
+                YangCompilerPluginProvider provider = providers.remove(pluginInfo.getPluginName());
+                if (provider != null && pluginInfo.getClassPath() != null) {
+                    //the plugin declared with its own class-path takes precedence over the provider of same name
+                    System.out.println("[WARNING]the plugin provider:" + provider.getClass().getName()
+                            + " is ignored, the plugin:" + pluginInfo.getPluginName() + " is loaded from class-path:"
+                            + pluginInfo.getClassPath().getAbsolutePath());
+                } else if (provider != null) {
+                    //the provider creates the plugin directly, no reflection is needed
+                    pluginInfo.setFactory(provider::create);
+                }
+            }
+            yangCompiler.addPluginInfo(pluginInfo);
+        }
+    }
+
     private static void preparePlugins(YangCompiler yangCompiler) throws IOException, URISyntaxException {
+        Map<String, YangCompilerPluginProvider> providers = discoverProviders();
         InputStream inputStream = yangCompiler.getClass().getResourceAsStream("/plugins.json");
         Scanner scanner = new Scanner(inputStream).useDelimiter("\\A");
         String result = scanner.hasNext() ? scanner.next() : "";
         if (!result.isEmpty()) {
-            List<PluginInfo> pluginInfos = parsePlugins(null, result);
-            for (PluginInfo pluginInfo : pluginInfos) {
-                yangCompiler.addPluginInfo(pluginInfo);
-            }
+            addPluginInfos(yangCompiler, parsePlugins(null, result), providers);
         }
         File programDir = new File(yangCompiler.getClass().getProtectionDomain().getCodeSource().getLocation()
                 .toURI());
-        File pluginsDir = new File(programDir.getParentFile(), "plugins");
-        if (!pluginsDir.exists()) {
-            return;
-        }
-        File pluginsFile = new File(pluginsDir, "plugins.json");
+        File pluginsFile = new File(new File(programDir.getParentFile(), "plugins"), "plugins.json");
         if (pluginsFile.exists()) {
-            List<PluginInfo> pluginInfos = parsePlugins(pluginsFile, FileUtil.readFile2String(pluginsFile));
-            for (PluginInfo pluginInfo : pluginInfos) {
-                yangCompiler.addPluginInfo(pluginInfo);
-            }
+            addPluginInfos(yangCompiler, parsePlugins(pluginsFile, FileUtil.readFile2String(pluginsFile)),
+                    providers);
+        }
+        //providers without metadata in plugins.json
+        for (YangCompilerPluginProvider provider : providers.values()) {
+            yangCompiler.addPluginInfo(PluginInfo.fromProvider(provider));
         }
-
-
     }
 
     /**
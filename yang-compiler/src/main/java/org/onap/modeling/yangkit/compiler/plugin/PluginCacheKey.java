@@ -0,0 +1,95 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler.plugin;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.onap.modeling.yangkit.compiler.SchemaSnapshot;
+
+
+/**
+ * the cache key of a plugin call. It consists of the plugin version and the components which the outputs
+ * depend on (e.g. parameters and the fingerprints of the modules the plugin reads). If the cache key is not
+ * changed, the plugin will not be called, and the outputs will be restored from cache.
+ */
+public class PluginCacheKey {
+    private final String version;
+    private final List<String> components = new ArrayList<>();
+    private final List<String> outputs = new ArrayList<>();
+
+    /**
+     * the constructor.
+     *
+     * @param version the version of plugin, it MUST be changed if the outputs of plugin are changed.
+     */
+    public PluginCacheKey(String version) {
+        this.version = version;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * add a component of cache key.
+     *
+     * @param name  the name of component
+     * @param value the value of component
+     * @return this cache key
+     */
+    public PluginCacheKey addComponent(String name, String value) {
+        components.add(name + "=" + value);
+        return this;
+    }
+
+    /**
+     * add an output (file or directory) of plugin, it will be cached and restored.
+     *
+     * @param output the path of output
+     * @return this cache key
+     */
+    public PluginCacheKey addOutput(String output) {
+        outputs.add(output);
+        return this;
+    }
+
+    public List<String> getOutputs() {
+        return outputs;
+    }
+
+    /**
+     * get the digest of cache key.
+     *
+     * @return digest string
+     */
+    public String getDigest() {
+        StringBuilder sb = new StringBuilder(version);
+        sb.append("\n");
+        for (String component : components) {
+            sb.append(component);
+            sb.append("\n");
+        }
+        for (String output : outputs) {
+            sb.append("output=");
+            sb.append(output);
+            sb.append("\n");
+        }
+        return SchemaSnapshot.hash(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
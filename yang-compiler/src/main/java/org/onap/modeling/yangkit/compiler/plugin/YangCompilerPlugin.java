@@ -52,6 +52,20 @@ public interface YangCompilerPlugin {
         return yangCompilerPluginParameter;
     }
 
+    /**
+     * prepare the plugin, e.g. load the resources which don't depend on the schema context to be compiled.
+     * It's called asynchronously at the beginning of compilation, concurrently with parsing and validating
+     * the schema context, and it's finished before any other method of this plugin is called with the schema
+     * context, except getCacheKey: the cache key MUST NOT depend on the prepare phase, it's computed without
+     * waiting for it, and the prepare phase is cancelled(interrupted) if the outputs are restored from cache.
+     * @param yangCompiler yang compiler instance
+     * @param parameters parameters
+     * @throws YangCompilerException if error occurs, the exception will be thrown.
+     */
+    default void prepare(YangCompiler yangCompiler, List<YangCompilerPluginParameter> parameters)
+            throws YangCompilerException {
+    }
+
     /**
      * the definition of run method.
      * @param schemaContext yang schema context
@@ -62,4 +76,55 @@ public interface YangCompilerPlugin {
     void run(YangSchemaContext schemaContext, YangCompiler yangCompiler, List<YangCompilerPluginParameter> parameters)
             throws YangCompilerException;
 
+    /**
+     * create a visitor of schema tree for this plugin. If a visitor is returned, the plugin will not be run,
+     * instead, the visitor will be called when the compiler traverses the schema tree, the schema tree is
+     * traversed only once for all visitors. The visitor MUST NOT change the schema context.
+     * @param schemaContext yang schema context
+     * @param yangCompiler yang compiler instance
+     * @param parameters parameters
+     * @return the visitor, or null if this plugin should be run by run method
+     * @throws YangCompilerException if error occurs, the exception will be thrown.
+     */
+    default YangSchemaVisitor createVisitor(YangSchemaContext schemaContext, YangCompiler yangCompiler,
+                                            List<YangCompilerPluginParameter> parameters)
+            throws YangCompilerException {
+        return null;
+    }
+
+    /**
+     * get the cache key of this plugin call. If the cache key is the same as a previous call, the plugin will not
+     * be called, and its outputs will be restored from the cache. The raw parameters of build option are always
+     * part of the cache key.
+     * @param schemaContext yang schema context
+     * @param yangCompiler yang compiler instance
+     * @param parameters parameters
+     * @return the cache key, or null if this plugin is not cacheable
+     * @throws YangCompilerException if error occurs, the exception will be thrown.
+     */
+    default PluginCacheKey getCacheKey(YangSchemaContext schemaContext, YangCompiler yangCompiler,
+                                       List<YangCompilerPluginParameter> parameters)
+            throws YangCompilerException {
+        return null;
+    }
+
+    /**
+     * whether this plugin needs the documentation text (description and reference statements) of yang modules.
+     * In lean mode, the documentation text will be released before plugins are called if no plugin needs it.
+     * @return true if documentation text is needed
+     */
+    default boolean requiresDocumentation() {
+        return true;
+    }
+
+    /**
+     * whether this plugin is isolated, it means the plugin only reads the schema context, and it has no side effect
+     * which is visible to other plugins (e.g. writing the same files, or changing global state).
+     * The consecutive isolated plugins will be called concurrently.
+     * @return true if this plugin is isolated
+     */
+    default boolean isIsolated() {
+        return false;
+    }
+
 }
@@ -0,0 +1,37 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler.plugin;
+
+
+/**
+ * the provider of yang compiler plugin, it's discovered by {@link java.util.ServiceLoader} through
+ * META-INF/services/org.onap.modeling.yangkit.compiler.plugin.YangCompilerPluginProvider.
+ * A provider SHOULD be lightweight, the plugin is created only when it's referenced by build option.
+ */
+public interface YangCompilerPluginProvider {
+    /**
+     * get the name of plugin, it MUST be unique.
+     * @return plugin name
+     */
+    String getName();
+
+    /**
+     * create the plugin.
+     * @return plugin instance
+     */
+    YangCompilerPlugin create();
+}
@@ -0,0 +1,77 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler.plugin;
+
+import org.onap.modeling.yangkit.compiler.YangCompilerException;
+import org.yangcentral.yangkit.model.api.stmt.Module;
+import org.yangcentral.yangkit.model.api.stmt.SchemaNode;
+
+
+/**
+ * the visitor of schema tree. The compiler traverses the schema tree of the validated schema context only once,
+ * and dispatches the events to the visitors of all plugins. The main modules are visited in the order of
+ * schema context (unless all visitors are concurrent), and the schema nodes of a module are visited in pre-order.
+ */
+public interface YangSchemaVisitor {
+    /**
+     * enter a main module.
+     * @param module module
+     */
+    default void enterModule(Module module) {
+    }
+
+    /**
+     * leave a main module.
+     * @param module module
+     */
+    default void leaveModule(Module module) {
+    }
+
+    /**
+     * enter a schema node.
+     * @param schemaNode schema node
+     * @return true if the children of this schema node should be visited, false to skip them
+     */
+    default boolean enterNode(SchemaNode schemaNode) {
+        return true;
+    }
+
+    /**
+     * leave a schema node, it's called for every schema node which has been entered.
+     * @param schemaNode schema node
+     */
+    default void leaveNode(SchemaNode schemaNode) {
+    }
+
+    /**
+     * whether the modules can be visited concurrently. If all visitors are concurrent, the compiler traverses
+     * the main modules in parallel on the compute executor: the events of a module are still called by one thread
+     * in pre-order, from enterModule to leaveModule, but the events of different modules may be called by
+     * different threads at the same time and the modules may be entered out of order.
+     * @return true if the visitor is thread-safe across modules
+     */
+    default boolean isConcurrent() {
+        return false;
+    }
+
+    /**
+     * finish the visit, it's called after the whole schema tree is traversed.
+     * @throws YangCompilerException if error occurs, the exception will be thrown.
+     */
+    default void finish() throws YangCompilerException {
+    }
+}
@@ -0,0 +1,232 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.onap.modeling.yangkit.compiler.plugin.stat;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.onap.modeling.yangkit.compiler.schema.CompactSchemaTree;
+import org.yangcentral.yangkit.base.YangBuiltinKeyword;
+
+
+/**
+ * the aggregate statistics of schema nodes, they're counted from the compact schema tree of schema context
+ * with primitive counters: the keywords are counted in an int array indexed by the ordinal of builtin keyword,
+ * the depths in an int array indexed by depth, and the other counters are int fields.
+ * Every main module is counted by its own aggregate, and they're merged in the order of modules.
+ */
+class StatisticsAggregate {
+    private static final YangBuiltinKeyword[] KEYWORDS = YangBuiltinKeyword.values();
+    private static final Map<String, Integer> KEYWORD_ORDINALS = new HashMap<>();
+    //the counters of a module
+    private static final int NODES = 0;
+    private static final int CONFIG = 1;
+    private static final int STATE = 2;
+    private static final int DEVIATED = 3;
+    private static final int INACTIVE = 4;
+    private static final int MAX_DEPTH = 5;
+    private static final int COUNTERS = 6;
+
+    static {
+        for (YangBuiltinKeyword keyword : KEYWORDS) {
+            KEYWORD_ORDINALS.put(keyword.getQName().getLocalName(), keyword.ordinal());
+        }
+    }
+
+    private final int[] counters = new int[COUNTERS];
+    //the last one counts the schema nodes defined by extensions
+    private final int[] keywords = new int[KEYWORDS.length + 1];
+    private final Map<String, int[]> types = new HashMap<>();
+    private int[] depths = new int[16];
+    private final List<String> moduleNames = new ArrayList<>();
+    private final List<int[]> moduleCounters = new ArrayList<>();
+
+    /**
+     * count the schema nodes of compact schema tree. The nodes which don't belong to the modules of schema
+     * context are skipped with their descendants, and the virtual nodes aren't counted, but their children are
+     * counted one level deeper, the same as the node descriptions.
+     *
+     * @param tree compact schema tree
+     * @return the aggregate of all main modules
+     */
+    static StatisticsAggregate build(CompactSchemaTree tree) {
+        StatisticsAggregate aggregate = new StatisticsAggregate();
+        int[] stack = new int[16];
+        for (int root = tree.getFirstRoot(); root != -1; root = tree.getNextSibling(root)) {
+            StatisticsAggregate module = new StatisticsAggregate();
+            //stack[depth - 1] is the next node to be counted at depth, the top-level nodes are at depth 1
+            int depth = 1;
+            stack[0] = tree.getFirstChild(root);
+            while (depth > 0) {
+                int id = stack[depth - 1];
+                if (id == -1) {
+                    depth--;
+                    continue;
+                }
+                stack[depth - 1] = tree.getNextSibling(id);
+                if (!tree.hasFlag(id, CompactSchemaTree.FLAG_IN_CONTEXT)) {
+                    continue;
+                }
+                if (!tree.hasFlag(id, CompactSchemaTree.FLAG_VIRTUAL)) {
+                    module.add(tree, id, depth);
+                }
+                int firstChild = tree.getFirstChild(id);
+                if (firstChild != -1) {
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth++] = firstChild;
+                }
+            }
+            aggregate.addModule(tree.getName(root), module);
+        }
+        return aggregate;
+    }
+
+    /**
+     * count a node of compact schema tree.
+     *
+     * @param tree  compact schema tree
+     * @param id    node id
+     * @param depth the depth of node in module, the top-level nodes are at depth 1
+     */
+    private void add(CompactSchemaTree tree, int id, int depth) {
+        counters[NODES]++;
+        counters[tree.hasFlag(id, CompactSchemaTree.FLAG_CONFIG) ? CONFIG : STATE]++;
+        if (tree.hasFlag(id, CompactSchemaTree.FLAG_DEVIATED)) {
+            counters[DEVIATED]++;
+        }
+        if (!tree.hasFlag(id, CompactSchemaTree.FLAG_ACTIVE)) {
+            counters[INACTIVE]++;
+        }
+        Integer ordinal = tree.hasFlag(id, CompactSchemaTree.FLAG_EXTENSION)
+                ? null : KEYWORD_ORDINALS.get(tree.getKeyword(id));
+        keywords[ordinal == null ? KEYWORDS.length : ordinal]++;
+        String type = tree.getType(id);
+        if (type != null) {
+            int[] count = types.get(type);
+            if (count == null) {
+                count = new int[1];
+                types.put(type, count);
+            }
+            count[0]++;
+        }
+        if (depth >= depths.length) {
+            depths = Arrays.copyOf(depths, Math.max(depths.length * 2, depth + 1));
+        }
+        depths[depth]++;
+        if (depth > counters[MAX_DEPTH]) {
+            counters[MAX_DEPTH] = depth;
+        }
+    }
+
+    /**
+     * merge the aggregate of a main module.
+     *
+     * @param moduleName the name of main module
+     * @param module     the aggregate of module
+     */
+    private void addModule(String moduleName, StatisticsAggregate module) {
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            counters[i] += module.counters[i];
+        }
+        counters[MAX_DEPTH] = Math.max(counters[MAX_DEPTH], module.counters[MAX_DEPTH]);
+        for (int i = 0; i < keywords.length; i++) {
+            keywords[i] += module.keywords[i];
+        }
+        for (Map.Entry<String, int[]> entry : module.types.entrySet()) {
+            int[] count = types.get(entry.getKey());
+            if (count == null) {
+                types.put(entry.getKey(), new int[]{entry.getValue()[0]});
+            } else {
+                count[0] += entry.getValue()[0];
+            }
+        }
+        if (module.depths.length > depths.length) {
+            depths = Arrays.copyOf(depths, module.depths.length);
+        }
+        for (int i = 0; i < module.depths.length; i++) {
+            depths[i] += module.depths[i];
+        }
+        moduleNames.add(moduleName);
+        moduleCounters.add(module.counters.clone());
+    }
+
+    /**
+     * write the aggregate as a json document.
+     *
+     * @param out          writer
+     * @param totalModules the number of modules of schema context, including sub modules
+     * @throws IOException io exception
+     */
+    void write(Writer out, int totalModules) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(out);
+        jsonWriter.setIndent("  ");
+        jsonWriter.beginObject();
+        jsonWriter.name("total-modules").value(totalModules);
+        writeCounters(jsonWriter, counters);
+        jsonWriter.name("keyword").beginObject();
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            if (keywords[i] > 0) {
+                jsonWriter.name(KEYWORDS[i].getQName().getLocalName()).value(keywords[i]);
+            }
+        }
+        if (keywords[KEYWORDS.length] > 0) {
+            jsonWriter.name("extension").value(keywords[KEYWORDS.length]);
+        }
+        jsonWriter.endObject();
+        jsonWriter.name("type").beginObject();
+        for (Map.Entry<String, int[]> entry : new TreeMap<>(types).entrySet()) {
+            jsonWriter.name(entry.getKey()).value(entry.getValue()[0]);
+        }
+        jsonWriter.endObject();
+        //depth-histogram[i] is the number of nodes at depth i
+        jsonWriter.name("depth-histogram").beginArray();
+        for (int i = 0; i <= counters[MAX_DEPTH]; i++) {
+            jsonWriter.value(depths[i]);
+        }
+        jsonWriter.endArray();
+        jsonWriter.name("module").beginArray();
+        for (int i = 0; i < moduleNames.size(); i++) {
+            jsonWriter.beginObject();
+            jsonWriter.name("name").value(moduleNames.get(i));
+            writeCounters(jsonWriter, moduleCounters.get(i));
+            jsonWriter.endObject();
+        }
+        jsonWriter.endArray();
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    private static void writeCounters(JsonWriter jsonWriter, int[] counters) throws IOException {
+        jsonWriter.name("nodes").value(counters[NODES]);
+        jsonWriter.name("config").value(counters[CONFIG]);
+        jsonWriter.name("state").value(counters[STATE]);
+        jsonWriter.name("deviated").value(counters[DEVIATED]);
+        jsonWriter.name("inactive").value(counters[INACTIVE]);
+        jsonWriter.name("max-depth").value(counters[MAX_DEPTH]);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.onap.modeling.yangkit.compiler.plugin.stat;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+
+/**
+ * the writer of yang statistics, the node descriptions are written one at a time. The rows are split into
+ * shards (sheets or files) when a shard reaches the max rows, or when a new module starts if the rows are
+ * sharded by module. A shard is opened when its first row is written, so no empty shard is produced.
+ */
+abstract class StatisticsWriter implements Consumer<YangNodeDescription> {
+    private final List<Tag> tags;
+    private final int maxRows;
+    private final boolean byModule;
+    private String module;
+    private boolean moduleStarted;
+    private boolean opened;
+    private int shardIndex;
+    private int shardRows;
+    private int nodes;
+
+    /**
+     * the constructor.
+     *
+     * @param tags     tags
+     * @param maxRows  the max rows of a shard, 0 means unlimited
+     * @param byModule whether the rows are sharded by module
+     */
+    StatisticsWriter(List<Tag> tags, int maxRows, boolean byModule) {
+        this.tags = tags;
+        this.maxRows = maxRows;
+        this.byModule = byModule;
+    }
+
+    List<Tag> getTags() {
+        return tags;
+    }
+
+    /**
+     * get the number of written node descriptions.
+     *
+     * @return the number of node descriptions
+     */
+    int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * start the node descriptions of a main module.
+     *
+     * @param moduleName the name of main module
+     */
+    void startModule(String moduleName) {
+        if (byModule) {
+            module = moduleName;
+            moduleStarted = true;
+        }
+    }
+
+    @Override
+    public void accept(YangNodeDescription nodeDescription) {
+        if (!opened || moduleStarted || (maxRows > 0 && shardRows >= maxRows)) {
+            if (opened) {
+                closeShard();
+            }
+            shardIndex = (!opened || moduleStarted) ? 1 : shardIndex + 1;
+            moduleStarted = false;
+            shardRows = 0;
+            openShard(module, shardIndex);
+            opened = true;
+        }
+        writeRow(nodeDescription);
+        shardRows++;
+        nodes++;
+    }
+
+    /**
+     * finish writing, the last shard is closed. If nothing is written, an empty shard with header is produced.
+     */
+    void finish() {
+        if (!opened) {
+            openShard(null, 1);
+            opened = true;
+        }
+        closeShard();
+    }
+
+    /**
+     * open a shard and write the header.
+     *
+     * @param module the module of shard, null if the rows are not sharded by module
+     * @param index  the index of shard (of module), starting from 1
+     */
+    protected abstract void openShard(String module, int index);
+
+    /**
+     * write a row to current shard.
+     *
+     * @param nodeDescription node description
+     */
+    protected abstract void writeRow(YangNodeDescription nodeDescription);
+
+    /**
+     * close current shard.
+     */
+    protected abstract void closeShard();
+}
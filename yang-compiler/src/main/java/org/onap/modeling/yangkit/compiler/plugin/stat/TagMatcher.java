@@ -0,0 +1,144 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler.plugin.stat;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.yangcentral.yangkit.base.Yang;
+import org.yangcentral.yangkit.base.YangElement;
+import org.yangcentral.yangkit.common.api.FName;
+import org.yangcentral.yangkit.common.api.QName;
+import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
+import org.yangcentral.yangkit.model.api.stmt.Module;
+import org.yangcentral.yangkit.model.api.stmt.SchemaNode;
+import org.yangcentral.yangkit.model.api.stmt.YangStatement;
+
+
+/**
+ * the tags of yang statistics compiled for a schema context. The keyword of every tag is resolved once
+ * instead of once per schema node, and the tags are dispatched by resolved keyword, so the sub statements
+ * of a schema node are scanned only once for all tags.
+ */
+class TagMatcher {
+    private final List<Tag> tags;
+    //the indexes of tags by resolved keyword, a tag is not dispatched if the prefix of its keyword
+    //doesn't match any module
+    private final Map<QName, int[]> dispatch = new HashMap<>();
+
+    /**
+     * compile the tags, a tag is ignored if the prefix of its keyword doesn't match any module.
+     *
+     * @param tags          tags
+     * @param schemaContext yang schema context
+     */
+    TagMatcher(List<Tag> tags, YangSchemaContext schemaContext) {
+        this.tags = tags;
+        for (int i = 0; i < tags.size(); i++) {
+            QName keyword = resolve(tags.get(i).getField(), schemaContext);
+            if (keyword == null) {
+                continue;
+            }
+            int[] indexes = dispatch.get(keyword);
+            if (indexes == null) {
+                indexes = new int[]{i};
+            } else {
+                indexes = Arrays.copyOf(indexes, indexes.length + 1);
+                indexes[indexes.length - 1] = i;
+            }
+            dispatch.put(keyword, indexes);
+        }
+    }
+
+    private static QName resolve(String field, YangSchemaContext schemaContext) {
+        FName prefixedName = new FName(field);
+        if (prefixedName.getPrefix() == null) {
+            return new QName(Yang.NAMESPACE, prefixedName.getLocalName());
+        }
+        List<Module> matched = schemaContext.getModule(prefixedName.getPrefix());
+        if (matched == null || matched.isEmpty()) {
+            return null;
+        }
+        URI namespace = matched.get(0).getMainModule().getNamespace().getUri();
+        return new QName(namespace, prefixedName.getLocalName());
+    }
+
+    /**
+     * add the matched tags to node description, in the order of tags. A tag without value matches the first
+     * sub statement of its keyword, and a tag with value matches the sub statement of its keyword and value.
+     *
+     * @param schemaNode      schema node
+     * @param nodeDescription node description
+     */
+    void match(SchemaNode schemaNode, YangNodeDescription nodeDescription) {
+        if (dispatch.isEmpty()) {
+            return;
+        }
+        //the values of matched tags by index, it's allocated when the first tag is matched
+        String[] values = null;
+        for (YangElement element : schemaNode.getSubElements()) {
+            if (!(element instanceof YangStatement)) {
+                continue;
+            }
+            YangStatement statement = (YangStatement) element;
+            int[] indexes = dispatch.get(statement.getYangKeyword());
+            if (indexes == null) {
+                continue;
+            }
+            for (int index : indexes) {
+                if (values != null && values[index] != null) {
+                    continue;
+                }
+                String value = match(tags.get(index), statement.getArgStr());
+                if (value != null) {
+                    if (values == null) {
+                        values = new String[tags.size()];
+                    }
+                    values[index] = value;
+                }
+            }
+        }
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                Tag tag = tags.get(i);
+                Tag nodeTag = new Tag(tag.getName(), tag.getField());
+                nodeTag.setValue(values[i]);
+                nodeDescription.addTag(nodeTag);
+            }
+        }
+    }
+
+    /**
+     * match a tag with the argument of a sub statement of its keyword.
+     *
+     * @param tag tag
+     * @param arg the argument of sub statement
+     * @return the value of matched tag, null if it's not matched
+     */
+    private static String match(Tag tag, String arg) {
+        if (tag.getValue() == null || tag.getValue().isEmpty()) {
+            return arg == null || arg.isEmpty() ? "true" : arg;
+        }
+        return tag.getValue().equals(arg) ? tag.getValue() : null;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.onap.modeling.yangkit.compiler.plugin.stat;
+
+import com.google.gson.JsonObject;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.onap.modeling.yangkit.compiler.OutputSink;
+
+
+/**
+ * write the node descriptions to csv or json lines files with plain buffered writers, optionally compressed
+ * with gzip. The first shard is written to the output file, the other shards are written to the files named
+ * by inserting the module and/or the index of shard before the extension of output file,
+ * e.g. stat.csv, stat-2.csv or stat-ietf-interfaces.csv, stat-ietf-interfaces-2.csv.
+ */
+class TextStatisticsWriter extends StatisticsWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputSink outputSink;
+    private final File output;
+    private final boolean csv;
+    private final boolean gzip;
+    private Writer writer;
+
+    /**
+     * the constructor.
+     *
+     * @param tags       tags
+     * @param maxRows    the max rows of a file, 0 means unlimited
+     * @param byModule   whether the rows are sharded by module
+     * @param outputSink output sink
+     * @param output     output file
+     * @param format     csv or jsonl
+     * @param gzip       whether the files are compressed with gzip
+     */
+    TextStatisticsWriter(List<Tag> tags, int maxRows, boolean byModule, OutputSink outputSink, File output,
+                         String format, boolean gzip) {
+        super(tags, maxRows, byModule);
+        this.outputSink = outputSink;
+        this.output = output;
+        this.csv = format.equals("csv");
+        this.gzip = gzip;
+    }
+
+    /**
+     * get the file of shard.
+     *
+     * @param module the module of shard
+     * @param index  the index of shard
+     * @return file
+     */
+    private File getShardFile(String module, int index) {
+        if (module == null && index == 1) {
+            return output;
+        }
+        String name = output.getName();
+        int dot = name.indexOf('.');
+        String base = dot < 0 ? name : name.substring(0, dot);
+        String extension = dot < 0 ? "" : name.substring(dot);
+        StringBuilder sb = new StringBuilder(base);
+        if (module != null) {
+            sb.append('-').append(module);
+        }
+        if (index > 1) {
+            sb.append('-').append(index);
+        }
+        sb.append(extension);
+        return new File(output.getParentFile(), sb.toString());
+    }
+
+    @Override
+    protected void openShard(String module, int index) {
+        try {
+            OutputStream out = outputSink.open(getShardFile(module, index));
+            if (gzip) {
+                out = new GZIPOutputStream(out, BUFFER_SIZE);
+            }
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            if (csv) {
+                writeCsvRow("Path", "Active", "Description", "Config", "schema", "type", "module", "deviated");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsvRow(String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvField(fields[i]);
+        }
+        for (Tag tag : getTags()) {
+            writer.write(',');
+            writeCsvField(tag.getName());
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsvField(String field) throws IOException {
+        if (field == null) {
+            return;
+        }
+        boolean quoted = false;
+        for (int i = 0; i < field.length() && !quoted; i++) {
+            char ch = field.charAt(i);
+            quoted = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quoted) {
+            writer.write(field);
+            return;
+        }
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    protected void writeRow(YangNodeDescription path) {
+        try {
+            if (csv) {
+                writeCsvFields(path);
+            } else {
+                writer.write(toJson(path).toString());
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsvFields(YangNodeDescription path) throws IOException {
+        writeCsvField(path.getPath());
+        writer.write(',');
+        writeCsvField(String.valueOf(path.isActive()));
+        writer.write(',');
+        writeCsvField(path.getDescription());
+        writer.write(',');
+        writeCsvField(path.getConfig());
+        writer.write(',');
+        writeCsvField(path.getSchemaType());
+        writer.write(',');
+        writeCsvField(path.getNodeType());
+        writer.write(',');
+        writeCsvField(path.getModule());
+        writer.write(',');
+        writeCsvField(String.valueOf(path.isDeviated()));
+        for (Tag tag : getTags()) {
+            writer.write(',');
+            Tag valueTag = path.getTag(tag.getName());
+            writeCsvField(valueTag == null ? "" : valueTag.getValue());
+        }
+    }
+
+    private JsonObject toJson(YangNodeDescription path) {
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty("path", path.getPath());
+        jsonObject.addProperty("active", path.isActive());
+        jsonObject.addProperty("description", path.getDescription());
+        jsonObject.addProperty("config", path.getConfig());
+        jsonObject.addProperty("schema", path.getSchemaType());
+        if (path.getNodeType() != null) {
+            jsonObject.addProperty("type", path.getNodeType());
+        }
+        jsonObject.addProperty("module", path.getModule());
+        jsonObject.addProperty("deviated", path.isDeviated());
+        if (!path.getTags().isEmpty()) {
+            JsonObject tagsObject = new JsonObject();
+            for (Tag tag : path.getTags()) {
+                tagsObject.addProperty(tag.getName(), tag.getValue());
+            }
+            jsonObject.add("tags", tagsObject);
+        }
+        return jsonObject;
+    }
+
+    @Override
+    protected void closeShard() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package org.onap.modeling.yangkit.compiler.plugin.stat;
+
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.xssf.streaming.SXSSFCell;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+
+/**
+ * write the node descriptions to the detail sheets of xlsx document one row at a time. SXSSF keeps only a small
+ * window of rows in memory, the others are flushed to temporary file, and the summary is counted on the fly.
+ * A sheet holds at most 1048575 rows besides the header.
+ */
+class XlsxStatisticsWriter extends StatisticsWriter {
+    static final int MAX_ROWS = 1048575;
+    private static final int MAX_SHEET_NAME = 31;
+
+    private final SXSSFWorkbook workbook = new SXSSFWorkbook();
+    private final SXSSFSheet summary;
+    private final CellStyle style;
+    private final CellStyle desStyle;
+    private final int size;
+    private SXSSFSheet detail;
+    private int rowIndex;
+
+    /**
+     * the constructor.
+     *
+     * @param tags         tags
+     * @param maxRows      the max rows of a sheet, 0 means the limit of xlsx
+     * @param byModule     whether the rows are sharded by module
+     * @param totalModules the number of modules
+     */
+    XlsxStatisticsWriter(List<Tag> tags, int maxRows, boolean byModule, int totalModules) {
+        super(tags, (maxRows <= 0 || maxRows > MAX_ROWS) ? MAX_ROWS : maxRows, byModule);
+        size = tags.size();
+        summary = workbook.createSheet("summary");
+        summary.setDisplayGridlines(true);
+        summary.setAutobreaks(true);
+        summary.setColumnWidth(0, 5000);
+        summary.setColumnWidth(1, 5000);
+        SXSSFRow sumFirstRow = summary.createRow(0);
+        SXSSFCell totalModulesCell = sumFirstRow.createCell(0);
+        totalModulesCell.setCellValue("Total modules:");
+        SXSSFCell totalModulesVal = sumFirstRow.createCell(1);
+        totalModulesVal.setCellValue(totalModules);
+
+        style = workbook.createCellStyle();
+        style.setBorderBottom(BorderStyle.THIN);
+        style.setBorderLeft(BorderStyle.THIN);
+        style.setBorderRight(BorderStyle.THIN);
+        style.setBorderTop(BorderStyle.THIN);
+
+        desStyle = workbook.createCellStyle();
+        desStyle.cloneStyleFrom(style);
+        desStyle.setAlignment(HorizontalAlignment.JUSTIFY);
+    }
+
+    /**
+     * get the name of detail sheet, it's unique in workbook and no longer than 31 characters.
+     *
+     * @param module the module of sheet
+     * @param index  the index of sheet
+     * @return sheet name
+     */
+    private String getSheetName(String module, int index) {
+        String base = module == null ? "detail" : module;
+        String name = index == 1 ? truncate(base, MAX_SHEET_NAME) : truncate(base, MAX_SHEET_NAME - 1
+                - String.valueOf(index).length()) + "-" + index;
+        int duplicate = 2;
+        while (workbook.getSheet(name) != null) {
+            String suffix = "~" + duplicate;
+            name = truncate(name, MAX_SHEET_NAME - suffix.length()) + suffix;
+            duplicate++;
+        }
+        return name;
+    }
+
+    private static String truncate(String str, int length) {
+        return str.length() <= length ? str : str.substring(0, length);
+    }
+
+    @Override
+    protected void openShard(String module, int index) {
+        detail = workbook.createSheet(getSheetName(module, index));
+        rowIndex = 0;
+        detail.setDisplayGridlines(true);
+        detail.setAutobreaks(true);
+        detail.setColumnWidth(0, 20000);
+        detail.setColumnWidth(1, 5000);
+        detail.setColumnWidth(2, 20000);
+        detail.setColumnWidth(3, 5000);
+        detail.setColumnWidth(4, 5000);
+        detail.setColumnWidth(5, 5000);
+        detail.setColumnWidth(6, 5000);
+        detail.setColumnWidth(7, 5000);
+        for (int i = 0; i < size; i++) {
+            detail.setColumnWidth(8 + i, 5000);
+        }
+
+        detail.setDefaultColumnStyle(0, style);
+        detail.setDefaultColumnStyle(1, desStyle);
+        detail.setDefaultColumnStyle(2, style);
+        detail.setDefaultColumnStyle(3, style);
+        detail.setDefaultColumnStyle(4, style);
+        detail.setDefaultColumnStyle(5, style);
+        detail.setDefaultColumnStyle(6, style);
+        detail.setDefaultColumnStyle(7, style);
+        for (int i = 0; i < size; i++) {
+            detail.setDefaultColumnStyle(8 + i, style);
+        }
+        //generate header
+        SXSSFRow firstRow = detail.createRow(0);
+        SXSSFCell yangpath = firstRow.createCell(0);
+        yangpath.setCellValue("Path");
+        yangpath.setCellStyle(style);
+        SXSSFCell active = firstRow.createCell(1);
+        active.setCellValue("Active");
+        active.setCellStyle(style);
+        SXSSFCell description = firstRow.createCell(2);
+        description.setCellValue("Description");
+        description.setCellStyle(style);
+        SXSSFCell config = firstRow.createCell(3);
+        config.setCellValue("Config");
+        config.setCellStyle(style);
+        SXSSFCell schema = firstRow.createCell(4);
+        schema.setCellValue("schema");
+        schema.setCellStyle(style);
+        SXSSFCell type = firstRow.createCell(5);
+        type.setCellValue("type");
+        type.setCellStyle(style);
+        SXSSFCell moduleHeader = firstRow.createCell(6);
+        moduleHeader.setCellValue("module");
+        moduleHeader.setCellStyle(style);
+        SXSSFCell deviated = firstRow.createCell(7);
+        deviated.setCellValue("deviated");
+        deviated.setCellStyle(style);
+        for (int i = 0; i < size; i++) {
+            SXSSFCell tagCell = firstRow.createCell(8 + i);
+            tagCell.setCellValue(getTags().get(i).getName());
+            tagCell.setCellStyle(style);
+        }
+    }
+
+    @Override
+    protected void writeRow(YangNodeDescription path) {
+        rowIndex++;
+        SXSSFRow row = detail.createRow(rowIndex);
+        SXSSFCell pathCell = row.createCell(0);
+        pathCell.setCellValue(path.getPath());
+        pathCell.setCellStyle(style);
+        SXSSFCell activeCell = row.createCell(1);
+        activeCell.setCellValue(path.isActive());
+        activeCell.setCellStyle(style);
+        SXSSFCell descriptionCell = row.createCell(2);
+        String str = path.getDescription();
+        if (str.length() >= 32767) {
+            str = str.substring(0, 32767);
+        }
+        descriptionCell.setCellValue(str);
+        descriptionCell.setCellStyle(desStyle);
+
+        SXSSFCell configCell = row.createCell(3);
+        configCell.setCellValue(path.getConfig());
+        configCell.setCellStyle(style);
+
+        SXSSFCell schemaCell = row.createCell(4);
+        schemaCell.setCellValue(path.getSchemaType());
+        schemaCell.setCellStyle(style);
+
+        SXSSFCell typeCell = row.createCell(5);
+        typeCell.setCellValue(path.getNodeType());
+        typeCell.setCellStyle(style);
+
+        SXSSFCell moduleCell = row.createCell(6);
+        moduleCell.setCellValue(path.getModule());
+        moduleCell.setCellStyle(style);
+        SXSSFCell deviateCell = row.createCell(7);
+        deviateCell.setCellValue(path.isDeviated());
+        deviateCell.setCellStyle(style);
+        for (int j = 0; j < size; j++) {
+            SXSSFCell tagValCell = row.createCell(8 + j);
+            Tag valueTag = path.getTag(getTags().get(j).getName());
+            if (valueTag == null) {
+                tagValCell.setCellValue("");
+            } else {
+                tagValCell.setCellValue(valueTag.getValue());
+            }
+
+            tagValCell.setCellStyle(style);
+        }
+    }
+
+    @Override
+    protected void closeShard() {
+        detail = null;
+    }
+
+    /**
+     * write the summary which is counted during traversal.
+     */
+    @Override
+    void finish() {
+        super.finish();
+        SXSSFRow summarySecRow = summary.createRow(1);
+        SXSSFCell totalNodes = summarySecRow.createCell(0);
+        totalNodes.setCellValue("Total nodes:");
+        SXSSFCell totalNodesVal = summarySecRow.createCell(1);
+        totalNodesVal.setCellValue(getNodes());
+    }
+
+    SXSSFWorkbook getWorkbook() {
+        return workbook;
+    }
+}
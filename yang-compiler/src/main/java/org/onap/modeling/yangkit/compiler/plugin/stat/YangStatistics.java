@@ -20,28 +20,36 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.net.URI;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.apache.poi.ss.usermodel.BorderStyle;
-import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.HorizontalAlignment;
-import org.apache.poi.xssf.streaming.SXSSFCell;
-import org.apache.poi.xssf.streaming.SXSSFRow;
-import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
+import org.onap.modeling.yangkit.compiler.OutputSink;
 import org.onap.modeling.yangkit.compiler.YangCompiler;
 import org.onap.modeling.yangkit.compiler.YangCompilerException;
+import org.onap.modeling.yangkit.compiler.plugin.PluginCacheKey;
 import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPlugin;
 import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPluginParameter;
-import org.yangcentral.yangkit.base.Yang;
-import org.yangcentral.yangkit.common.api.FName;
-import org.yangcentral.yangkit.common.api.QName;
+import org.onap.modeling.yangkit.compiler.plugin.YangSchemaVisitor;
+import org.onap.modeling.yangkit.compiler.schema.CompactSchemaTree;
+import org.onap.modeling.yangkit.compiler.schema.SchemaTraversal;
 import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
 import org.yangcentral.yangkit.model.api.stmt.Module;
 import org.yangcentral.yangkit.model.api.stmt.SchemaNode;
@@ -49,12 +57,43 @@ import org.yangcentral.yangkit.model.api.stmt.SchemaNodeContainer;
 import org.yangcentral.yangkit.model.api.stmt.SubModule;
 import org.yangcentral.yangkit.model.api.stmt.TypedDataNode;
 import org.yangcentral.yangkit.model.api.stmt.VirtualSchemaNode;
-import org.yangcentral.yangkit.model.api.stmt.YangStatement;
 
 
 public class YangStatistics implements YangCompilerPlugin {
+    private static final List<String> FORMATS = Arrays.asList("xlsx", "csv", "jsonl");
+    private static final List<String> PARAMETERS = Arrays.asList("output", "summary", "tag", "format",
+            "max-rows", "shard-by", "gzip");
+    private static final List<String> SHARD_BY = Arrays.asList("rows", "module");
+    //the node descriptions of a module are produced in chunks, and at most MAX_CHUNKS chunks of a module
+    //are buffered before they are written
+    private static final int CHUNK_ROWS = 256;
+    private static final int MAX_CHUNKS = 4;
     private List<Tag> tags = new ArrayList<>();
     private String output;
+    private String summary;
+    private String format;
+    private int maxRows;
+    private boolean byModule;
+    private boolean gzip;
+    private TagMatcher tagMatcher;
+    private YangSchemaContext tagMatcherContext;
+    private List<Tag> tagMatcherTags;
+
+    /**
+     * get the tags compiled for schema context, they are compiled again only if the schema context
+     * or the tags are changed.
+     *
+     * @param schemaContext yang schema context
+     * @return compiled tags
+     */
+    private synchronized TagMatcher getTagMatcher(YangSchemaContext schemaContext) {
+        if (tagMatcher == null || tagMatcherContext != schemaContext || tagMatcherTags != tags) {
+            tagMatcher = new TagMatcher(tags, schemaContext);
+            tagMatcherContext = schemaContext;
+            tagMatcherTags = tags;
+        }
+        return tagMatcher;
+    }
 
     /**
      * get node description.
@@ -66,6 +105,10 @@ public class YangStatistics implements YangCompilerPlugin {
         if (schemaNode == null) {
             return null;
         }
+        return getNodeDescription(schemaNode, getTagMatcher(schemaNode.getContext().getSchemaContext()));
+    }
+
+    private YangNodeDescription getNodeDescription(SchemaNode schemaNode, TagMatcher matcher) {
         if (schemaNode instanceof VirtualSchemaNode) {
             return null;
         }
@@ -85,41 +128,7 @@ public class YangStatistics implements YangCompilerPlugin {
         nodeDescription.setModule(schemaNode.getContext().getCurModule().getArgStr());
         nodeDescription.setActive(schemaNode.isActive());
         nodeDescription.setDeviated(schemaNode.isDeviated());
-        for (Tag tag : tags) {
-            String field = tag.getField();
-            FName prefixedName = new FName(field);
-            QName keyword = null;
-            if (prefixedName.getPrefix() == null) {
-                keyword = new QName(Yang.NAMESPACE, prefixedName.getLocalName());
-            } else {
-                YangSchemaContext schemaContext = schemaNode.getContext().getSchemaContext();
-                List<Module> matched = schemaContext.getModule(prefixedName.getPrefix());
-                if (matched == null || matched.isEmpty()) {
-                    continue;
-                }
-                URI namespace = matched.get(0).getMainModule().getNamespace().getUri();
-                keyword = new QName(namespace, prefixedName.getLocalName());
-            }
-            if (tag.getValue() == null || tag.getValue().isEmpty()) {
-                List<YangStatement> statements = schemaNode.getSubStatement(keyword);
-                if (!statements.isEmpty()) {
-                    String arg = statements.get(0).getArgStr();
-                    if (arg == null || arg.isEmpty()) {
-                        arg = "true";
-                    }
-                    Tag nodeTag = new Tag(tag.getName(), tag.getField());
-                    nodeTag.setValue(arg);
-                    nodeDescription.addTag(nodeTag);
-                }
-            } else {
-                YangStatement statement = schemaNode.getSubStatement(keyword, tag.getValue());
-                if (statement != null) {
-                    Tag nodeTag = new Tag(tag.getName(), tag.getField());
-                    nodeTag.setValue(tag.getValue());
-                    nodeDescription.addTag(nodeTag);
-                }
-            }
-        }
+        matcher.match(schemaNode, nodeDescription);
         return nodeDescription;
     }
 
@@ -130,10 +139,10 @@ public class YangStatistics implements YangCompilerPlugin {
      * @return list of node description.
      */
     public List<YangNodeDescription> getNodeDescriptions(SchemaNodeContainer schemaNodeContainer) {
+        List<YangNodeDescription> nodeDescriptions = new ArrayList<>();
         if (schemaNodeContainer == null) {
-            return new ArrayList<>();
+            return nodeDescriptions;
         }
-        List<YangNodeDescription> nodeDescriptions = new ArrayList<>();
         if (schemaNodeContainer instanceof SchemaNode) {
             SchemaNode schemaNode = (SchemaNode) schemaNodeContainer;
             YangNodeDescription nodeDescription = getNodeDescription(schemaNode);
@@ -141,25 +150,61 @@ public class YangStatistics implements YangCompilerPlugin {
                 nodeDescriptions.add(nodeDescription);
             }
         }
+        List<SchemaNode> children = schemaNodeContainer.getSchemaNodeChildren();
+        if (children.isEmpty()) {
+            return nodeDescriptions;
+        }
+        YangSchemaContext schemaContext = children.get(0).getContext().getSchemaContext();
+        addNodeDescriptions(schemaNodeContainer, getModuleSet(schemaContext), getTagMatcher(schemaContext),
+                nodeDescriptions);
+        return nodeDescriptions;
+    }
+
+    /**
+     * get the modules of schema context as a set, the modules are compared by identity.
+     *
+     * @param schemaContext yang schema context
+     * @return set of modules
+     */
+    private static Set<Module> getModuleSet(YangSchemaContext schemaContext) {
+        Set<Module> modules = Collections.newSetFromMap(new IdentityHashMap<>());
+        modules.addAll(schemaContext.getModules());
+        return modules;
+    }
 
-        for (SchemaNode schemaNode : schemaNodeContainer.getSchemaNodeChildren()) {
-            List<Module> modules = schemaNode.getContext().getSchemaContext().getModules();
+    /**
+     * add the node descriptions of the descendants of schema node container in pre-order. An explicit stack
+     * is used, so the depth of schema tree isn't limited by the stack of thread.
+     *
+     * @param schemaNodeContainer schema node container
+     * @param modules             the modules of schema context
+     * @param matcher             compiled tags
+     * @param nodeDescriptions    the list which the node descriptions are added to
+     */
+    private void addNodeDescriptions(SchemaNodeContainer schemaNodeContainer, Set<Module> modules,
+                                     TagMatcher matcher, List<YangNodeDescription> nodeDescriptions) {
+        Deque<Iterator<SchemaNode>> stack = new ArrayDeque<>();
+        stack.push(schemaNodeContainer.getSchemaNodeChildren().iterator());
+        while (!stack.isEmpty()) {
+            Iterator<SchemaNode> children = stack.peek();
+            if (!children.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            SchemaNode schemaNode = children.next();
             Module curModule = schemaNode.getContext().getCurModule().getMainModule();
             if (!modules.contains(curModule)) {
                 //only include the schema node belongs to modules of schema context
                 continue;
             }
-
+            YangNodeDescription nodeDescription = getNodeDescription(schemaNode, matcher);
+            if (nodeDescription != null) {
+                nodeDescriptions.add(nodeDescription);
+            }
             if (schemaNode instanceof SchemaNodeContainer) {
-                nodeDescriptions.addAll(getNodeDescriptions((SchemaNodeContainer) schemaNode));
-            } else {
-                YangNodeDescription nodeDescription = getNodeDescription(schemaNode);
-                if (nodeDescription != null) {
-                    nodeDescriptions.add(nodeDescription);
-                }
+                stack.push(((SchemaNodeContainer) schemaNode).getSchemaNodeChildren().iterator());
             }
         }
-        return nodeDescriptions;
     }
 
     /**
@@ -173,162 +218,289 @@ public class YangStatistics implements YangCompilerPlugin {
         if (schemaContext == null) {
             return nodeDescriptions;
         }
+        Set<Module> modules = getModuleSet(schemaContext);
+        TagMatcher matcher = getTagMatcher(schemaContext);
+        List<ForkJoinTask<List<YangNodeDescription>>> tasks = new ArrayList<>();
         for (Module module : schemaContext.getModules()) {
             if (module instanceof SubModule) {
+                //the schema nodes of sub modules are children of main module
                 continue;
             }
-            nodeDescriptions.addAll(getNodeDescriptions(module));
+            tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                List<YangNodeDescription> moduleDescriptions = new ArrayList<>();
+                addNodeDescriptions(module, modules, matcher, moduleDescriptions);
+                return moduleDescriptions;
+            }));
+        }
+        for (ForkJoinTask<List<YangNodeDescription>> task : tasks) {
+            nodeDescriptions.addAll(task.join());
         }
         return nodeDescriptions;
     }
 
     /**
-     * serialize the yang statistics of schema context to xlsx format.
-     *
-     * @param schemaContext yang schema context.
-     * @return xlsx document
+     * the node descriptions of a main module which is being visited. They're written directly while the module
+     * is the head (the first module which isn't finished in the order of schema context), otherwise they're
+     * buffered in chunks of CHUNK_ROWS rows, and the thread of module is blocked while MAX_CHUNKS chunks are
+     * buffered, until the module becomes the head.
      */
-    public SXSSFWorkbook serializeXlsx(YangSchemaContext schemaContext) {
-        SXSSFWorkbook workbook = new SXSSFWorkbook();
-        SXSSFSheet summary = workbook.createSheet("summary");
-        summary.setDisplayGridlines(true);
-        summary.setAutobreaks(true);
-        summary.setColumnWidth(0, 5000);
-        summary.setColumnWidth(1, 5000);
-        SXSSFRow sumFirstRow = summary.createRow(0);
-        SXSSFCell totalModules = sumFirstRow.createCell(0);
-        totalModules.setCellValue("Total modules:");
-        SXSSFCell totalModulesVal = sumFirstRow.createCell(1);
-        totalModulesVal.setCellValue(schemaContext.getModules().size());
-
-        SXSSFSheet detail = workbook.createSheet("detail");
-        detail.setDisplayGridlines(true);
-        detail.setAutobreaks(true);
-        detail.setColumnWidth(0, 20000);
-        detail.setColumnWidth(1, 5000);
-        detail.setColumnWidth(2, 20000);
-        detail.setColumnWidth(3, 5000);
-        detail.setColumnWidth(4, 5000);
-        detail.setColumnWidth(5, 5000);
-        detail.setColumnWidth(6, 5000);
-        detail.setColumnWidth(7, 5000);
-        int size = tags.size();
-        for (int i = 0; i < size; i++) {
-            detail.setColumnWidth(8 + i, 5000);
-        }
-
-        CellStyle style = workbook.createCellStyle();
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-
-        CellStyle desStyle = workbook.createCellStyle();
-        desStyle.cloneStyleFrom(style);
-        desStyle.setAlignment(HorizontalAlignment.JUSTIFY);
-
-        detail.setDefaultColumnStyle(0, style);
-        detail.setDefaultColumnStyle(1, desStyle);
-        detail.setDefaultColumnStyle(2, style);
-        detail.setDefaultColumnStyle(3, style);
-        detail.setDefaultColumnStyle(4, style);
-        detail.setDefaultColumnStyle(5, style);
-        detail.setDefaultColumnStyle(6, style);
-        detail.setDefaultColumnStyle(7, style);
-        for (int i = 0; i < size; i++) {
-            detail.setDefaultColumnStyle(8 + i, style);
-        }
-        //generate header
-        SXSSFRow firstRow = detail.createRow(0);
-        SXSSFCell yangpath = firstRow.createCell(0);
-        yangpath.setCellValue("Path");
-        yangpath.setCellStyle(style);
-        SXSSFCell active = firstRow.createCell(1);
-        active.setCellValue("Active");
-        active.setCellStyle(style);
-        SXSSFCell description = firstRow.createCell(2);
-        description.setCellValue("Description");
-        description.setCellStyle(style);
-        SXSSFCell config = firstRow.createCell(3);
-        config.setCellValue("Config");
-        config.setCellStyle(style);
-        SXSSFCell schema = firstRow.createCell(4);
-        schema.setCellValue("schema");
-        schema.setCellStyle(style);
-        SXSSFCell type = firstRow.createCell(5);
-        type.setCellValue("type");
-        type.setCellStyle(style);
-        SXSSFCell moduleHeader = firstRow.createCell(6);
-        moduleHeader.setCellValue("module");
-        moduleHeader.setCellStyle(style);
-        SXSSFCell deviated = firstRow.createCell(7);
-        deviated.setCellValue("deviated");
-        deviated.setCellStyle(style);
-        for (int i = 0; i < size; i++) {
-            SXSSFCell tagCell = firstRow.createCell(8 + i);
-            tagCell.setCellValue(tags.get(i).getName());
-            tagCell.setCellStyle(style);
-        }
-
-        List<YangNodeDescription> totalPaths = getYangStatistics(schemaContext);
-
-
-        if (null != totalPaths) {
-            int pathSize = totalPaths.size();
-            SXSSFRow summarySecRow = summary.createRow(1);
-            SXSSFCell totalNodes = summarySecRow.createCell(0);
-            totalNodes.setCellValue("Total nodes:");
-            SXSSFCell totalNodesVal = summarySecRow.createCell(1);
-            totalNodesVal.setCellValue(pathSize);
-            for (int i = 0; i < pathSize; i++) {
-                YangNodeDescription path = totalPaths.get(i);
-                SXSSFRow row = detail.createRow(i + 1);
-                SXSSFCell pathCell = row.createCell(0);
-                pathCell.setCellValue(path.getPath());
-                pathCell.setCellStyle(style);
-                SXSSFCell activeCell = row.createCell(1);
-                activeCell.setCellValue(path.isActive());
-                activeCell.setCellStyle(style);
-                SXSSFCell descriptionCell = row.createCell(2);
-                String str = path.getDescription();
-                if (str.length() >= 32767) {
-                    str = str.substring(0, 32767);
+    private static class ModuleState {
+        private final String moduleName;
+        private final int index;
+        private final Deque<List<YangNodeDescription>> chunks = new ArrayDeque<>();
+        private List<YangNodeDescription> chunk = new ArrayList<>(CHUNK_ROWS);
+        private boolean finished;
+
+        ModuleState(Module module, int index) {
+            this.moduleName = module.getArgStr();
+            this.index = index;
+        }
+    }
+
+    /**
+     * the visitor which hands the node description of every schema node over to the statistics writer.
+     * It's concurrent, the main modules are visited in parallel by the shared traversal, the state of the module
+     * being visited is bound to the thread which visits it, and the node descriptions are written in the order
+     * of modules, so the output is deterministic. At most two modules per worker are in flight, and every module
+     * buffers at most MAX_CHUNKS * CHUNK_ROWS node descriptions, so the number of buffered rows is bounded
+     * no matter how large the modules are.
+     */
+    private class StatisticsVisitor implements YangSchemaVisitor {
+        private final Set<Module> modules;
+        private final StatisticsWriter writer;
+        private final TagMatcher matcher;
+        //the index of main modules in the order of schema context, they're compared by identity
+        private final IdentityHashMap<Module, Integer> moduleIndexes = new IdentityHashMap<>();
+        private final ModuleState[] states;
+        private final ThreadLocal<ModuleState> current = new ThreadLocal<>();
+        //the writer and the states are guarded by the lock
+        private final Object lock = new Object();
+        private int head;
+        //set if the writer fails, the modules which are waiting to be written are released then
+        private boolean failed;
+
+        StatisticsVisitor(YangSchemaContext schemaContext, StatisticsWriter writer) {
+            this.modules = getModuleSet(schemaContext);
+            this.writer = writer;
+            this.matcher = getTagMatcher(schemaContext);
+            for (Module module : schemaContext.getModules()) {
+                if (!(module instanceof SubModule)) {
+                    moduleIndexes.put(module, moduleIndexes.size());
+                }
+            }
+            this.states = new ModuleState[moduleIndexes.size()];
+        }
+
+        @Override
+        public boolean isConcurrent() {
+            return true;
+        }
+
+        @Override
+        public void enterModule(Module module) {
+            ModuleState state = new ModuleState(module, moduleIndexes.get(module));
+            current.set(state);
+            synchronized (lock) {
+                states[state.index] = state;
+                if (state.index == head) {
+                    writer.startModule(state.moduleName);
                 }
-                descriptionCell.setCellValue(str);
-                descriptionCell.setCellStyle(desStyle);
-
-                SXSSFCell configCell = row.createCell(3);
-                configCell.setCellValue(path.getConfig());
-                configCell.setCellStyle(style);
-
-                SXSSFCell schemaCell = row.createCell(4);
-                schemaCell.setCellValue(path.getSchemaType());
-                schemaCell.setCellStyle(style);
-
-                SXSSFCell typeCell = row.createCell(5);
-                typeCell.setCellValue(path.getNodeType());
-                typeCell.setCellStyle(style);
-
-                SXSSFCell moduleCell = row.createCell(6);
-                moduleCell.setCellValue(path.getModule());
-                moduleCell.setCellStyle(style);
-                SXSSFCell deviateCell = row.createCell(7);
-                deviateCell.setCellValue(path.isDeviated());
-                deviateCell.setCellStyle(style);
-                for (int j = 0; j < size; j++) {
-                    SXSSFCell tagValCell = row.createCell(8 + j);
-                    Tag valueTag = path.getTag(tags.get(j).getName());
-                    if (valueTag == null) {
-                        tagValCell.setCellValue("");
-                    } else {
-                        tagValCell.setCellValue(valueTag.getValue());
+            }
+        }
+
+        @Override
+        public boolean enterNode(SchemaNode schemaNode) {
+            Module curModule = schemaNode.getContext().getCurModule().getMainModule();
+            if (!modules.contains(curModule)) {
+                //only include the schema node belongs to modules of schema context
+                return false;
+            }
+            YangNodeDescription nodeDescription = getNodeDescription(schemaNode, matcher);
+            if (nodeDescription != null) {
+                ModuleState state = current.get();
+                state.chunk.add(nodeDescription);
+                if (state.chunk.size() >= CHUNK_ROWS) {
+                    flush(state);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void leaveModule(Module module) {
+            ModuleState state = current.get();
+            current.remove();
+            synchronized (lock) {
+                if (!state.chunk.isEmpty()) {
+                    state.chunks.add(state.chunk);
+                }
+                state.chunk = null;
+                state.finished = true;
+                if (state.index != head || failed) {
+                    return;
+                }
+                try {
+                    //the following finished modules are written, and the next one is started
+                    while (head < states.length && states[head] != null) {
+                        ModuleState next = states[head];
+                        if (next != state) {
+                            writer.startModule(next.moduleName);
+                        }
+                        write(next);
+                        if (!next.finished) {
+                            break;
+                        }
+                        states[head++] = null;
                     }
+                } catch (RuntimeException e) {
+                    failed = true;
+                    throw e;
+                } finally {
+                    lock.notifyAll();
+                }
+            }
+        }
 
-                    tagValCell.setCellStyle(style);
+        /**
+         * hand the current chunk of module over, it's written if the module is the head, otherwise it's buffered,
+         * and the thread is blocked while the buffer is full.
+         *
+         * @param state the state of module
+         */
+        private void flush(ModuleState state) {
+            synchronized (lock) {
+                checkFailed(state);
+                state.chunks.add(state.chunk);
+                state.chunk = new ArrayList<>(CHUNK_ROWS);
+                if (state.index == head) {
+                    try {
+                        write(state);
+                    } catch (RuntimeException e) {
+                        failed = true;
+                        lock.notifyAll();
+                        throw e;
+                    }
+                    return;
                 }
+                if (state.chunks.size() < MAX_CHUNKS) {
+                    return;
+                }
+            }
+            try {
+                //the pool is compensated if the thread is a worker of it
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean isReleasable() {
+                        synchronized (lock) {
+                            return state.index == head || failed;
+                        }
+                    }
+
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        synchronized (lock) {
+                            while (state.index != head && !failed) {
+                                lock.wait();
+                            }
+                        }
+                        return true;
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted when waiting for statistics of module:" + state.moduleName);
+            }
+            synchronized (lock) {
+                checkFailed(state);
+            }
+        }
+
+        private void checkFailed(ModuleState state) {
+            if (failed) {
+                throw new RuntimeException("the statistics of module:" + state.moduleName
+                        + " are not written, because the statistics writer failed.");
             }
         }
-        return workbook;
+
+        private void write(ModuleState state) {
+            for (List<YangNodeDescription> chunk = state.chunks.poll(); chunk != null; chunk = state.chunks.poll()) {
+                for (YangNodeDescription nodeDescription : chunk) {
+                    writer.accept(nodeDescription);
+                }
+            }
+        }
+
+        @Override
+        public void finish() throws YangCompilerException {
+            writer.finish();
+        }
+    }
+
+    /**
+     * the visitor of plugin, the workbook and the aggregate summary are handed over to the output sink
+     * when finished, the other formats are already written during traversal. The aggregate is counted from
+     * the compact schema tree of schema context, which is shared with the other plugins. The files are resolved
+     * when the visitor is created, so the visitors of several statistics entries never share the options of plugin.
+     */
+    private class PluginStatisticsVisitor extends StatisticsVisitor {
+        private final SXSSFWorkbook workbook;
+        private final YangSchemaContext schemaContext;
+        private final YangCompiler yangCompiler;
+        private final int totalModules;
+        private final OutputSink outputSink;
+        private final File outputFile;
+        private final File summaryFile;
+
+        PluginStatisticsVisitor(YangSchemaContext schemaContext, StatisticsWriter writer,
+                                YangCompiler yangCompiler, OutputSink outputSink, File outputFile, File summaryFile) {
+            super(schemaContext, writer);
+            this.workbook = writer instanceof XlsxStatisticsWriter
+                    ? ((XlsxStatisticsWriter) writer).getWorkbook() : null;
+            this.schemaContext = schemaContext;
+            this.yangCompiler = yangCompiler;
+            this.totalModules = schemaContext.getModules().size();
+            this.outputSink = outputSink;
+            this.outputFile = outputFile;
+            this.summaryFile = summaryFile;
+        }
+
+        @Override
+        public void finish() throws YangCompilerException {
+            super.finish();
+            if (workbook != null) {
+                write(workbook, outputSink, outputFile);
+            }
+            if (summaryFile != null) {
+                CompactSchemaTree tree = yangCompiler == null
+                        ? CompactSchemaTree.build(schemaContext) : yangCompiler.getCompactSchemaTree(schemaContext);
+                StatisticsAggregate aggregate = StatisticsAggregate.build(tree);
+                //the aggregate is complete and never changed after it's counted
+                outputSink.write(summaryFile, out -> {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                    aggregate.write(writer, totalModules);
+                    writer.flush();
+                });
+            }
+        }
+    }
+
+    /**
+     * serialize the yang statistics of schema context to xlsx format.
+     *
+     * @param schemaContext yang schema context.
+     * @return xlsx document
+     */
+    public SXSSFWorkbook serializeXlsx(YangSchemaContext schemaContext) {
+        XlsxStatisticsWriter writer = new XlsxStatisticsWriter(tags, 0, false,
+                schemaContext == null ? 0 : schemaContext.getModules().size());
+        if (schemaContext == null) {
+            writer.finish();
+            return writer.getWorkbook();
+        }
+        StatisticsVisitor visitor = new StatisticsVisitor(schemaContext, writer);
+        SchemaTraversal.traverse(schemaContext, Collections.singletonList(visitor), ForkJoinPool.commonPool());
+        writer.finish();
+        return writer.getWorkbook();
     }
 
     /**
@@ -342,35 +514,142 @@ public class YangStatistics implements YangCompilerPlugin {
     @Override
     public void run(YangSchemaContext schemaContext, YangCompiler yangCompiler,
                     List<YangCompilerPluginParameter> parameters) throws YangCompilerException {
+        YangSchemaVisitor visitor = createVisitor(schemaContext, yangCompiler, parameters);
+        SchemaTraversal.traverse(schemaContext, Collections.singletonList(visitor),
+                yangCompiler == null ? ForkJoinPool.commonPool() : yangCompiler.getComputeExecutor());
+        visitor.finish();
+    }
 
+    /**
+     * load the classes of xlsx writer in advance, it overlaps with parsing and validating the schema context.
+     *
+     * @param yangCompiler yang compiler instance
+     * @param parameters   parameters for plugin
+     */
+    @Override
+    public void prepare(YangCompiler yangCompiler, List<YangCompilerPluginParameter> parameters) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook();
+        workbook.createCellStyle().setBorderBottom(BorderStyle.THIN);
+        try {
+            workbook.close();
+        } catch (IOException e) {
+            //ignore, nothing has been written
+        }
+    }
+
+    /**
+     * get the options of statistics from parameters, the options which are not specified are reset to default.
+     *
+     * @param parameters parameters for plugin
+     * @throws YangCompilerException if the format or shard-by is not supported
+     */
+    private void parseParameters(List<YangCompilerPluginParameter> parameters) throws YangCompilerException {
+        tags = new ArrayList<>();
+        output = null;
+        summary = null;
+        format = "xlsx";
+        maxRows = 0;
+        byModule = false;
+        gzip = false;
         for (YangCompilerPluginParameter parameter : parameters) {
-            if (parameter.getName().equals("output")) {
+            String name = parameter.getName();
+            if (name.equals("output")) {
                 output = (String) (parameter.getValue());
+            } else if (name.equals("summary")) {
+                summary = (String) (parameter.getValue());
+            } else if (name.equals("format")) {
+                format = (String) (parameter.getValue());
+                if (!FORMATS.contains(format)) {
+                    throw new YangCompilerException("unsupported format:" + format);
+                }
+            } else if (name.equals("max-rows")) {
+                maxRows = (Integer) (parameter.getValue());
+            } else if (name.equals("shard-by")) {
+                String shardBy = (String) (parameter.getValue());
+                if (!SHARD_BY.contains(shardBy)) {
+                    throw new YangCompilerException("unsupported shard-by:" + shardBy);
+                }
+                byModule = shardBy.equals("module");
+            } else if (name.equals("gzip")) {
+                gzip = (Boolean) (parameter.getValue());
             } else {
                 tags = (List<Tag>) (parameter.getValue());
             }
         }
+    }
 
-        SXSSFWorkbook workbook = serializeXlsx(schemaContext);
-        try {
-            File out = new File(output);
-            if (!out.exists()) {
-                File parent = out.getParentFile();
-                if (!parent.exists()) {
-                    parent.mkdirs();
-                }
-            }
-            workbook.write(new FileOutputStream(out));
-            workbook.close();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    /**
+     * get the output file, the extension .gz is appended to the compressed csv or jsonl output.
+     *
+     * @return output file
+     */
+    private File getOutputFile() {
+        if (gzip && !format.equals("xlsx") && !output.endsWith(".gz")) {
+            return new File(output + ".gz");
+        }
+        return new File(output);
+    }
+
+    @Override
+    public PluginCacheKey getCacheKey(YangSchemaContext schemaContext, YangCompiler yangCompiler,
+                                      List<YangCompilerPluginParameter> parameters) throws YangCompilerException {
+        parseParameters(parameters);
+        if (output == null) {
+            return null;
+        }
+        if (!format.equals("xlsx") && (maxRows > 0 || byModule)) {
+            //the files of shards are unknown before the statistics are written
+            return null;
+        }
+        PluginCacheKey cacheKey = new PluginCacheKey("3")
+                .addComponent("schema", yangCompiler.getModuleFingerprints(schemaContext).getSchemaFingerprint())
+                .addComponent("format", format)
+                .addComponent("max-rows", String.valueOf(maxRows))
+                .addComponent("shard-by", byModule ? "module" : "rows")
+                .addComponent("gzip", String.valueOf(gzip))
+                .addOutput(getOutputFile().getPath());
+        if (summary != null) {
+            cacheKey.addComponent("summary", summary).addOutput(summary);
         }
+        return cacheKey;
+    }
+
+    @Override
+    public YangSchemaVisitor createVisitor(YangSchemaContext schemaContext, YangCompiler yangCompiler,
+                                           List<YangCompilerPluginParameter> parameters)
+            throws YangCompilerException {
+        parseParameters(parameters);
+        if (output == null) {
+            throw new YangCompilerException("missing mandatory parameter:output");
+        }
+        //every option is resolved now, the plugin may be configured again by another entry before traversal
+        OutputSink outputSink = yangCompiler == null ? new OutputSink() : yangCompiler.getOutputSink();
+        File outputFile = outputSink.resolve(getOutputFile());
+        File summaryFile = summary == null ? null : outputSink.resolve(new File(summary));
+        StatisticsWriter writer;
+        if (format.equals("xlsx")) {
+            writer = new XlsxStatisticsWriter(tags, maxRows, byModule, schemaContext.getModules().size());
+        } else {
+            writer = new TextStatisticsWriter(tags, maxRows, byModule, outputSink, outputFile, format, gzip);
+        }
+        return new PluginStatisticsVisitor(schemaContext, writer, yangCompiler, outputSink, outputFile,
+                summaryFile);
+    }
 
+    private static void write(SXSSFWorkbook workbook, OutputSink outputSink, File outputFile) {
+        //the workbook is handed over to the output sink, it's closed after it's written
+        outputSink.write(outputFile, out -> {
+            try {
+                workbook.write(out);
+            } finally {
+                workbook.close();
+            }
+        });
     }
 
     @Override
     public YangCompilerPluginParameter getParameter(String name, JsonElement value) throws YangCompilerException {
-        if (!name.equals("output") && !name.equals("tag")) {
+        if (!PARAMETERS.contains(name)) {
             throw new YangCompilerException("unknown parameter:" + name);
         }
         YangCompilerPluginParameter yangCompilerPluginParameter = new YangCompilerPluginParameter() {
@@ -381,8 +660,13 @@ public class YangStatistics implements YangCompilerPlugin {
 
             @Override
             public Object getValue() {
-                if (name.equals("output")) {
+                if (name.equals("output") || name.equals("summary") || name.equals("format")
+                        || name.equals("shard-by")) {
                     return value.getAsString();
+                } else if (name.equals("max-rows")) {
+                    return value.getAsInt();
+                } else if (name.equals("gzip")) {
+                    return value.getAsBoolean();
                 } else {
                     List<Tag> tags = new ArrayList<>();
                     JsonArray tagArray = value.getAsJsonArray();
@@ -405,4 +689,9 @@ public class YangStatistics implements YangCompilerPlugin {
         };
         return yangCompilerPluginParameter;
     }
+
+    @Override
+    public boolean isIsolated() {
+        return true;
+    }
 }
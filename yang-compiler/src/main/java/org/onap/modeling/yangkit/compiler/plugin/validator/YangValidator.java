@@ -16,18 +16,58 @@ limitations under the License.
 
 package org.onap.modeling.yangkit.compiler.plugin.validator;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 
+import org.onap.modeling.yangkit.compiler.DiagnosticsWriter;
+import org.onap.modeling.yangkit.compiler.OutputSink;
 import org.onap.modeling.yangkit.compiler.YangCompiler;
 import org.onap.modeling.yangkit.compiler.YangCompilerException;
+import org.onap.modeling.yangkit.compiler.plugin.PluginCacheKey;
 import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPlugin;
 import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPluginParameter;
+import org.yangcentral.yangkit.common.api.validate.ValidatorResult;
 import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
-import org.yangcentral.yangkit.utils.file.FileUtil;
 
 
 
 public class YangValidator implements YangCompilerPlugin {
+    private static final List<String> FORMATS = Arrays.asList("text", "jsonl", "sarif");
+
+    /**
+     * get the output and format from parameters.
+     *
+     * @param parameters parameters of plugin
+     * @return output path and format
+     * @throws YangCompilerException if a parameter is unknown or invalid
+     */
+    private static String[] parseParameters(List<YangCompilerPluginParameter> parameters)
+            throws YangCompilerException {
+        String output = null;
+        String format = "text";
+        for (YangCompilerPluginParameter parameter : parameters) {
+            if (parameter.getName().equals("output")) {
+                output = (String) parameter.getValue();
+            } else if (parameter.getName().equals("format")) {
+                format = (String) parameter.getValue();
+                if (!FORMATS.contains(format)) {
+                    throw new YangCompilerException("unsupported format:" + format);
+                }
+            } else {
+                throw new YangCompilerException("unknown parameter:" + parameter.getName());
+            }
+        }
+        if (output == null) {
+            throw new YangCompilerException("missing mandatory parameter:output");
+        }
+        return new String[]{output, format};
+    }
+
     /**
      * the implementation of run method.
      * @param schemaContext yang schema context.
@@ -38,10 +78,41 @@ public class YangValidator implements YangCompilerPlugin {
     @Override
     public void run(YangSchemaContext schemaContext, YangCompiler yangCompiler,
                     List<YangCompilerPluginParameter> parameters) throws YangCompilerException {
-        YangCompilerPluginParameter parameter = parameters.get(0);
-        if (!parameter.getName().equals("output")) {
-            throw new YangCompilerException("unknown parameter:" + parameter.getName());
+        String[] options = parseParameters(parameters);
+        String format = options[1];
+        ValidatorResult validatorResult = schemaContext.getValidateResult();
+        OutputSink outputSink = yangCompiler.getOutputSink();
+        File output = outputSink.resolve(new File(options[0]));
+        if (format.equals("text")) {
+            //the rendering of validator result is kept as it is, only the other formats are structured
+            outputSink.write(output, validatorResult.toString());
+            return;
         }
-        FileUtil.writeUtf8File((String) parameter.getValue(), schemaContext.getValidateResult().toString());
+        outputSink.write(output, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            DiagnosticsWriter diagnosticsWriter = DiagnosticsWriter.open(writer, format);
+            diagnosticsWriter.write(validatorResult, null);
+            diagnosticsWriter.close();
+        });
+    }
+
+    @Override
+    public PluginCacheKey getCacheKey(YangSchemaContext schemaContext, YangCompiler yangCompiler,
+                                      List<YangCompilerPluginParameter> parameters) throws YangCompilerException {
+        String[] options = parseParameters(parameters);
+        return new PluginCacheKey("2")
+                .addComponent("schema", yangCompiler.getModuleFingerprints(schemaContext).getSchemaFingerprint())
+                .addComponent("format", options[1])
+                .addOutput(options[0]);
+    }
+
+    @Override
+    public boolean requiresDocumentation() {
+        return false;
+    }
+
+    @Override
+    public boolean isIsolated() {
+        return true;
     }
 }
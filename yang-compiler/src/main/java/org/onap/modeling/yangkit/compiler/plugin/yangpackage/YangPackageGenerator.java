@@ -151,4 +151,14 @@ public class YangPackageGenerator implements YangCompilerPlugin {
         }
 
     }
+
+    @Override
+    public boolean requiresDocumentation() {
+        return false;
+    }
+
+    @Override
+    public boolean isIsolated() {
+        return true;
+    }
 }
@@ -0,0 +1,92 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler.plugin.yangtree;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.yangcentral.yangkit.model.api.stmt.Grouping;
+
+
+/**
+ * the cache of rendered grouping definitions. The lines of a grouping start with the offset where it's rendered,
+ * and line wrapping only depends on the length of offset, so a fragment is cached per grouping and offset length
+ * with the offset stripped, and re-emitted with the offset of the place where it's used.
+ * Groupings are looked up by identity.
+ */
+class GroupingFragmentCache {
+    private final Map<Grouping, Map<Integer, String[]>> fragments = new IdentityHashMap<>();
+
+    /**
+     * get the cached fragment.
+     *
+     * @param grouping     grouping
+     * @param offsetLength the length of offset
+     * @return the lines of fragment without offset, null if it's not cached
+     */
+    synchronized String[] get(Grouping grouping, int offsetLength) {
+        Map<Integer, String[]> byOffset = fragments.get(grouping);
+        return byOffset == null ? null : byOffset.get(offsetLength);
+    }
+
+    /**
+     * cache a rendered fragment.
+     *
+     * @param grouping grouping
+     * @param offset   the offset where the fragment is rendered
+     * @param rendered rendered fragment, every line ends with line feed
+     * @return the lines of fragment without offset, null if the fragment can't be cached
+     */
+    String[] put(Grouping grouping, String offset, String rendered) {
+        if (!rendered.endsWith("\n")) {
+            return null;
+        }
+        String[] lines = rendered.substring(0, rendered.length() - 1).split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            if (!lines[i].startsWith(offset)) {
+                return null;
+            }
+            lines[i] = lines[i].substring(offset.length());
+        }
+        synchronized (this) {
+            fragments.computeIfAbsent(grouping, k -> new HashMap<>()).put(offset.length(), lines);
+        }
+        return lines;
+    }
+
+    /**
+     * write a cached fragment with offset.
+     *
+     * @param lines  the lines of fragment without offset
+     * @param offset offset
+     * @param out    the appendable which fragment is written to
+     * @throws IOException if it fails to write
+     */
+    static void write(String[] lines, String offset, Appendable out) throws IOException {
+        for (String line : lines) {
+            out.append(offset);
+            out.append(line);
+            out.append('\n');
+        }
+    }
+
+    synchronized void clear() {
+        fragments.clear();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler.plugin.yangtree;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * the random-access index of a yang tree file, it's built by the same traversal which writes the text tree.
+ * The layout (big-endian) is:
+ * <pre>
+ * header:  magic "YTIX"(4) version(4) node count(4) string count(4) string table offset(8)
+ * nodes:   node count fixed-size records of {@value #RECORD_SIZE} bytes, node i is at 24 + i * {@value #RECORD_SIZE}
+ *          parent, first child, next sibling(node ids, -1 if none), keyword, name, status, flags, opts, type,
+ *          features(string ids, -1 if none), the start and end byte offsets of the node's subtree in the text tree
+ * strings: string count offsets(4 bytes each, relative to the end of offsets), then every string as
+ *          length(4) and utf-8 bytes
+ * </pre>
+ * Node 0 is the module. The path of a node is the names of its ancestors, so a viewer can seek to any node,
+ * and read its subtree from the text tree by the byte offsets, without parsing the whole file.
+ */
+class TreeIndex {
+    static final int MAGIC = 0x59544958;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int RECORD_SIZE = 56;
+    private static final int INTS = 10;
+
+    private int size;
+    private int[] ints = new int[INTS * 64];
+    private long[] offsets = new long[2 * 64];
+    private int[] lastChild = new int[64];
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private int[] stack = new int[32];
+    private int depth;
+
+    private int intern(String str) {
+        if (str == null || str.isEmpty()) {
+            return -1;
+        }
+        Integer id = stringIds.get(str);
+        if (id == null) {
+            id = strings.size();
+            strings.add(str);
+            stringIds.put(str, id);
+        }
+        return id;
+    }
+
+    /**
+     * begin a node, the following nodes are its descendants until it's ended.
+     *
+     * @param offset   the byte offset of the node in text tree
+     * @param fields   keyword, name, status, flags, opts, type and features of node, null if not present
+     * @return node id
+     */
+    int begin(long offset, String... fields) {
+        if (size == lastChild.length) {
+            ints = Arrays.copyOf(ints, ints.length * 2);
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            lastChild = Arrays.copyOf(lastChild, lastChild.length * 2);
+        }
+        int id = size++;
+        int parent = depth == 0 ? -1 : stack[depth - 1];
+        int base = id * INTS;
+        ints[base] = parent;
+        ints[base + 1] = -1;
+        ints[base + 2] = -1;
+        for (int i = 0; i < INTS - 3; i++) {
+            ints[base + 3 + i] = i < fields.length ? intern(fields[i]) : -1;
+        }
+        lastChild[id] = -1;
+        if (parent != -1) {
+            if (lastChild[parent] == -1) {
+                ints[parent * INTS + 1] = id;
+            } else {
+                ints[lastChild[parent] * INTS + 2] = id;
+            }
+            lastChild[parent] = id;
+        }
+        offsets[id * 2] = offset;
+        offsets[id * 2 + 1] = offset;
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[depth++] = id;
+        return id;
+    }
+
+    /**
+     * end the current node.
+     *
+     * @param offset the byte offset of the end of node's subtree in text tree
+     */
+    void end(long offset) {
+        int id = stack[--depth];
+        offsets[id * 2 + 1] = offset;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * write the index.
+     *
+     * @param out output stream
+     * @throws IOException io exception
+     */
+    void write(OutputStream out) throws IOException {
+        DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        for (String str : strings) {
+            encoded.add(str.getBytes(StandardCharsets.UTF_8));
+        }
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(VERSION);
+        dataOut.writeInt(size);
+        dataOut.writeInt(encoded.size());
+        dataOut.writeLong(HEADER_SIZE + (long) size * RECORD_SIZE);
+        for (int id = 0; id < size; id++) {
+            for (int i = 0; i < INTS; i++) {
+                dataOut.writeInt(ints[id * INTS + i]);
+            }
+            dataOut.writeLong(offsets[id * 2]);
+            dataOut.writeLong(offsets[id * 2 + 1]);
+        }
+        int offset = 0;
+        for (byte[] bytes : encoded) {
+            dataOut.writeInt(offset);
+            offset += 4 + bytes.length;
+        }
+        for (byte[] bytes : encoded) {
+            dataOut.writeInt(bytes.length);
+            dataOut.write(bytes);
+        }
+        dataOut.flush();
+    }
+}
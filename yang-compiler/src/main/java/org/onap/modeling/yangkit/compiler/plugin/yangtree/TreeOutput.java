@@ -0,0 +1,82 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler.plugin.yangtree;
+
+import java.io.IOException;
+
+
+/**
+ * the output of yang tree, it counts the utf-8 bytes written, and builds the tree index if it's required.
+ */
+class TreeOutput implements Appendable {
+    private final Appendable out;
+    private final TreeIndex index;
+    private long offset;
+
+    /**
+     * the constructor.
+     *
+     * @param out   the appendable which yang tree is written to
+     * @param index tree index, null if the index is not required
+     */
+    TreeOutput(Appendable out, TreeIndex index) {
+        this.out = out;
+        this.index = index;
+    }
+
+    TreeIndex getIndex() {
+        return index;
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    private void count(char ch) {
+        if (ch < 0x80) {
+            offset++;
+        } else if (ch < 0x800) {
+            offset += 2;
+        } else if (Character.isHighSurrogate(ch)) {
+            //a surrogate pair is 4 bytes, the low surrogate is counted as 0
+            offset += 4;
+        } else if (!Character.isLowSurrogate(ch)) {
+            offset += 3;
+        }
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            count(csq.charAt(i));
+        }
+        out.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public Appendable append(char ch) throws IOException {
+        count(ch);
+        out.append(ch);
+        return this;
+    }
+}
@@ -17,15 +17,34 @@ limitations under the License.
 package org.onap.modeling.yangkit.compiler.plugin.yangtree;
 
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import org.onap.modeling.yangkit.compiler.ModuleFingerprints;
+import org.onap.modeling.yangkit.compiler.OutputSink;
 import org.onap.modeling.yangkit.compiler.YangCompiler;
 import org.onap.modeling.yangkit.compiler.YangCompilerException;
+import org.onap.modeling.yangkit.compiler.plugin.PluginCacheKey;
 import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPlugin;
 import org.onap.modeling.yangkit.compiler.plugin.YangCompilerPluginParameter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.yangcentral.yangkit.common.api.QName;
 import org.yangcentral.yangkit.model.api.restriction.LeafRef;
 import org.yangcentral.yangkit.model.api.schema.SchemaTreeType;
@@ -68,11 +87,18 @@ import org.yangcentral.yangkit.utils.file.FileUtil;
 public class YangTreeGenerator implements YangCompilerPlugin {
     private int lineLength = 72;
     private boolean expandGrouping = true;
+    private List<String[]> treePaths;
+    private int treeDepth;
+    private boolean indexed;
     private String output;
     private static final String SPACE = " ";
     private static final String TWO_SPACES = "  ";
     private static final String OFFSET = "   ";
     private static final String VERTICAL_OFFSET = "|  ";
+    private static final String VERSION = "1";
+    private static final String MANIFEST = ".yang-tree-manifest.json";
+    private static final Logger logger = LoggerFactory.getLogger(YangTreeGenerator.class);
+    private final GroupingFragmentCache groupingFragments = new GroupingFragmentCache();
 
     /**
      * build yang tree from module.
@@ -81,14 +107,30 @@ public class YangTreeGenerator implements YangCompilerPlugin {
      */
     public String buildYangTree(Module module) {
         StringBuilder sb = new StringBuilder();
+        try {
+            buildYangTree(module, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * build yang tree from module, and write it to appendable line by line.
+     * @param module module
+     * @param out the appendable which yang tree is written to
+     * @throws IOException if it fails to write
+     */
+    public void buildYangTree(Module module, Appendable out) throws IOException {
+        beginEntry(out, module.getYangKeyword().getLocalName(), module.getArgStr());
         if (module instanceof MainModule) {
-            sb.append("module:");
+            out.append("module:");
         } else {
-            sb.append("submodule:");
+            out.append("submodule:");
         }
-        sb.append(SPACE);
-        sb.append(module.getArgStr());
-        sb.append("\n");
+        out.append(SPACE);
+        out.append(module.getArgStr());
+        out.append("\n");
         //data nodes
         List<DataDefinition> dataDefs = module.getDataDefChildren();
 
@@ -105,7 +147,7 @@ public class YangTreeGenerator implements YangCompilerPlugin {
         // augment structure extension
         List<YangUnknown> augmentStructureList = module.getUnknowns(AugmentStructure.YANG_KEYWORD);
 
-        if (!module.getGroupings().isEmpty()
+        if (treePaths == null && !module.getGroupings().isEmpty()
                 && (!expandGrouping
                 || (module.getDataDefChildren().isEmpty()
                 && module.getRpcs().isEmpty()
@@ -114,82 +156,103 @@ public class YangTreeGenerator implements YangCompilerPlugin {
                 && yangDataList.isEmpty()
                 && yangStructureList.isEmpty()
                 && augmentStructureList.isEmpty()))) {
-            sb.append(buildGroupingContainer(module, TWO_SPACES));
+            buildGroupingContainer(module, TWO_SPACES, out);
         }
         //data nodes
-        if (!dataDefs.isEmpty()) {
-            int size = dataDefs.size();
+        List<SchemaNode> dataNodes = selectNodes(dataDefs, !expandGrouping, 1, treePaths);
+        if (!dataNodes.isEmpty()) {
+            int size = dataNodes.size();
             boolean last = false;
             for (int i = 0; i < size; i++) {
                 if (i == (size - 1)) {
                     last = true;
                 }
-                DataDefinition dataDefinition = dataDefs.get(i);
-                sb.append(buildYangTree(dataDefinition, last, TWO_SPACES, !expandGrouping));
+                SchemaNode dataNode = dataNodes.get(i);
+                buildYangTree(dataNode, last, TWO_SPACES, !expandGrouping, 1, getChildPaths(dataNode, 1, treePaths),
+                        out);
             }
         }
+        if (treePaths != null) {
+            //only data nodes, rpcs and notifications can be selected by tree path
+            augments = new ArrayList<>();
+            yangDataList = new ArrayList<>();
+            yangStructureList = new ArrayList<>();
+            augmentStructureList = new ArrayList<>();
+        }
         //augments
         if (!augments.isEmpty()) {
             for (Augment augment : augments) {
-                sb.append(buildAugmentRepresentation(augment, TWO_SPACES));
-                sb.append(buildChildren(augment, TWO_SPACES + TWO_SPACES, !expandGrouping));
+                beginNode(out, augment);
+                out.append(buildAugmentRepresentation(augment, TWO_SPACES));
+                buildChildren(augment, TWO_SPACES + TWO_SPACES, !expandGrouping, 1, null, out);
+                endEntry(out);
             }
         }
         //rpcs
-        List<Rpc> rpcs = module.getRpcs();
+        List<SchemaNode> rpcs = selectNodes(module.getRpcs(), !expandGrouping, 1, treePaths);
         if (!rpcs.isEmpty()) {
-            sb.append(TWO_SPACES);
-            sb.append("rpcs:\n");
+            out.append(TWO_SPACES);
+            beginEntry(out, "rpcs");
+            out.append("rpcs:\n");
             int size = rpcs.size();
             boolean last = false;
             for (int i = 0; i < size; i++) {
                 if (i == (size - 1)) {
                     last = true;
                 }
-                Rpc rpc = rpcs.get(i);
-                sb.append(buildYangTree(rpc, last, TWO_SPACES + TWO_SPACES, !expandGrouping));
+                SchemaNode rpc = rpcs.get(i);
+                buildYangTree(rpc, last, TWO_SPACES + TWO_SPACES, !expandGrouping, 1, getChildPaths(rpc, 1, treePaths),
+                        out);
             }
+            endEntry(out);
         }
         //notifications
-        List<Notification> notifications = module.getNotifications();
+        List<SchemaNode> notifications = selectNodes(module.getNotifications(), !expandGrouping, 1, treePaths);
         if (!notifications.isEmpty()) {
-            sb.append(TWO_SPACES);
-            sb.append("notifications:\n");
+            out.append(TWO_SPACES);
+            beginEntry(out, "notifications");
+            out.append("notifications:\n");
             int size = notifications.size();
             boolean last = false;
             for (int i = 0; i < size; i++) {
                 if (i == (size - 1)) {
                     last = true;
                 }
-                Notification notification = notifications.get(i);
-                sb.append(buildYangTree(notification, last, TWO_SPACES + TWO_SPACES, !expandGrouping));
+                SchemaNode notification = notifications.get(i);
+                buildYangTree(notification, last, TWO_SPACES + TWO_SPACES, !expandGrouping, 1,
+                        getChildPaths(notification, 1, treePaths), out);
             }
+            endEntry(out);
         }
         //yang data
         if (!yangDataList.isEmpty()) {
             for (YangUnknown unknown : yangDataList) {
                 YangData yangData = (YangData) unknown;
-                sb.append(TWO_SPACES);
-                sb.append("yang-data");
-                sb.append(" ");
-                sb.append(yangData.getArgStr());
-                sb.append(":\n");
-                sb.append(buildChildren(yangData, TWO_SPACES + TWO_SPACES, !expandGrouping));
+                beginEntry(out, "yang-data", yangData.getArgStr());
+                out.append(TWO_SPACES);
+                out.append("yang-data");
+                out.append(" ");
+                out.append(yangData.getArgStr());
+                out.append(":\n");
+                buildChildren(yangData, TWO_SPACES + TWO_SPACES, !expandGrouping, 1, null, out);
+                endEntry(out);
             }
         }
         //structures
         if (!yangStructureList.isEmpty()) {
             for (YangUnknown unknown : yangStructureList) {
                 YangStructure structure = (YangStructure) unknown;
-                sb.append(TWO_SPACES);
-                sb.append("structure");
-                sb.append(" ");
-                sb.append(structure.getArgStr());
-                sb.append(":\n");
+                beginEntry(out, "structure", structure.getArgStr());
+                out.append(TWO_SPACES);
+                out.append("structure");
+                out.append(" ");
+                out.append(structure.getArgStr());
+                out.append(":\n");
                 if (!expandGrouping) {
-                    sb.append(buildGroupingContainer(structure, TWO_SPACES + TWO_SPACES));
+                    buildGroupingContainer(structure, TWO_SPACES + TWO_SPACES, out);
                 }
-                sb.append(buildChildren(structure, TWO_SPACES + TWO_SPACES, !expandGrouping));
+                buildChildren(structure, TWO_SPACES + TWO_SPACES, !expandGrouping, 1, null, out);
+                endEntry(out);
 
             }
         }
@@ -197,20 +260,32 @@ public class YangTreeGenerator implements YangCompilerPlugin {
         if (!augmentStructureList.isEmpty()) {
             for (YangUnknown unknown : augmentStructureList) {
                 AugmentStructure augmentStructure = (AugmentStructure) unknown;
-                sb.append(TWO_SPACES);
-                sb.append("augment-structure");
-                sb.append(" ");
-                sb.append(augmentStructure.getArgStr());
-                sb.append(":\n");
-                sb.append(buildChildren(augmentStructure, TWO_SPACES + TWO_SPACES, !expandGrouping));
+                beginEntry(out, "augment-structure", augmentStructure.getArgStr());
+                out.append(TWO_SPACES);
+                out.append("augment-structure");
+                out.append(" ");
+                out.append(augmentStructure.getArgStr());
+                out.append(":\n");
+                buildChildren(augmentStructure, TWO_SPACES + TWO_SPACES, !expandGrouping, 1, null, out);
+                endEntry(out);
             }
         }
-
-        return sb.toString();
+        endEntry(out);
     }
 
-    private String buildYangTree(SchemaNode schemaNode, boolean last, String offSet, boolean grouping) {
-        StringBuilder sb = new StringBuilder();
+    /**
+     * build the yang tree of a schema node.
+     * @param schemaNode schema node
+     * @param last whether it's the last sibling
+     * @param offSet offset
+     * @param grouping whether the groupings are not expanded
+     * @param depth the depth of schema node, the top level is 1
+     * @param childPaths the tree paths which the children should match, null means all children are built
+     * @param out the appendable which yang tree is written to
+     * @throws IOException if it fails to write
+     */
+    private void buildYangTree(SchemaNode schemaNode, boolean last, String offSet, boolean grouping, int depth,
+                               List<String[]> childPaths, Appendable out) throws IOException {
         if (!grouping && (schemaNode instanceof Uses)) {
             Uses uses = (Uses) schemaNode;
             List<SchemaNode> schemaNodes = uses.getSchemaNodeChildren();
@@ -220,17 +295,18 @@ public class YangTreeGenerator implements YangCompilerPlugin {
                 if (i != (schemaNodes.size() - 1)) {
                     subLast = false;
                 }
-                sb.append(buildYangTree(exSchemaNode, subLast, offSet, grouping));
+                buildYangTree(exSchemaNode, subLast, offSet, grouping, depth, childPaths, out);
             }
-            return sb.toString();
+            return;
         }
+        beginNode(out, schemaNode);
         if (schemaNode instanceof Augment) {
-            sb.append(buildAugmentRepresentation((Augment) schemaNode, offSet));
+            out.append(buildAugmentRepresentation((Augment) schemaNode, offSet));
         } else {
-            sb.append(buildNodeRepresentation(schemaNode, offSet));
+            out.append(buildNodeRepresentation(schemaNode, offSet));
         }
-        if ((schemaNode instanceof GroupingDefContainer) && grouping) {
-            sb.append(buildGroupingContainer((GroupingDefContainer) schemaNode, offSet + TWO_SPACES));
+        if ((schemaNode instanceof GroupingDefContainer) && grouping && treePaths == null) {
+            buildGroupingContainer((GroupingDefContainer) schemaNode, offSet + TWO_SPACES, out);
         }
         if (schemaNode instanceof SchemaNodeContainer) {
             String childOffSet = offSet;
@@ -251,15 +327,21 @@ public class YangTreeGenerator implements YangCompilerPlugin {
                 schemaNodeContainer = new GroupingSchemaNodeContainer(schemaNode);
             }
 
-            sb.append(buildChildren(schemaNodeContainer, childOffSet, grouping));
+            if (treeDepth > 0 && depth >= treeDepth) {
+                //the children beyond tree depth are never visited
+                if (!getRealSchemaChildren(schemaNodeContainer, grouping).isEmpty()) {
+                    out.append(childOffSet);
+                    out.append("...\n");
+                }
+            } else {
+                buildChildren(schemaNodeContainer, childOffSet, grouping, depth + 1, childPaths, out);
+            }
         }
-
-        return sb.toString();
+        endEntry(out);
     }
 
-    private String buildGroupingContainer(GroupingDefContainer groupingDefContainer, String offSet) {
-        StringBuilder sb = new StringBuilder();
-        //sb.append(offSet);
+    private void buildGroupingContainer(GroupingDefContainer groupingDefContainer, String offSet, Appendable out)
+            throws IOException {
         List<Grouping> groupings = groupingDefContainer.getGroupings();
         int size = groupings.size();
         for (int i = 0; i < size; i++) {
@@ -268,9 +350,8 @@ public class YangTreeGenerator implements YangCompilerPlugin {
                 last = true;
             }
             Grouping grouping = groupings.get(i);
-            sb.append(buildGrouping(grouping, last, offSet));
+            buildGrouping(grouping, last, offSet, out);
         }
-        return sb.toString();
     }
 
     private List<SchemaNode> getRealSchemaChildren(SchemaNodeContainer schemaNodeContainer, boolean grouping) {
@@ -296,10 +377,10 @@ public class YangTreeGenerator implements YangCompilerPlugin {
         return realSchemaNodeChildren;
     }
 
-    private String buildChildren(SchemaNodeContainer schemaNodeContainer, String offSet, boolean grouping) {
-        StringBuilder sb = new StringBuilder();
-        List<SchemaNode> schemaNodeChildren = schemaNodeContainer.getSchemaNodeChildren();
-        List<SchemaNode> realSchemaNodeChildren = getRealSchemaChildren(schemaNodeContainer, grouping);
+    private void buildChildren(SchemaNodeContainer schemaNodeContainer, String offSet, boolean grouping, int depth,
+                               List<String[]> paths, Appendable out) throws IOException {
+        List<SchemaNode> realSchemaNodeChildren = selectNodes(getRealSchemaChildren(schemaNodeContainer, grouping),
+                grouping, depth, paths);
 
         int size = realSchemaNodeChildren.size();
         for (int i = 0; i < size; i++) {
@@ -308,25 +389,149 @@ public class YangTreeGenerator implements YangCompilerPlugin {
             if (i == (size - 1)) {
                 subLast = true;
             }
-            sb.append(buildYangTree(realSchemaNode, subLast, offSet, grouping));
+            buildYangTree(realSchemaNode, subLast, offSet, grouping, depth,
+                    getChildPaths(realSchemaNode, depth, paths), out);
 
         }
-        return sb.toString();
     }
 
-    private String buildGrouping(Grouping grouping, boolean last, String offset) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(offset);
-        sb.append("grouping ");
-        sb.append(grouping.getArgStr());
-        sb.append(":\n");
+    private void buildGrouping(Grouping grouping, boolean last, String offset, Appendable out) throws IOException {
+        if (getIndex(out) != null) {
+            //every node of grouping is indexed, so it's always rendered
+            renderGrouping(grouping, offset, out);
+            return;
+        }
+        String[] lines = groupingFragments.get(grouping, offset.length());
+        if (lines == null) {
+            StringBuilder sb = new StringBuilder();
+            renderGrouping(grouping, offset, sb);
+            lines = groupingFragments.put(grouping, offset, sb.toString());
+            if (lines == null) {
+                out.append(sb);
+                return;
+            }
+        }
+        GroupingFragmentCache.write(lines, offset, out);
+    }
+
+    private void renderGrouping(Grouping grouping, String offset, Appendable out) throws IOException {
+        beginNode(out, grouping);
+        out.append(offset);
+        out.append("grouping ");
+        out.append(grouping.getArgStr());
+        out.append(":\n");
         GroupingSchemaNodeContainer groupingSchemaNodeContainer = new GroupingSchemaNodeContainer(grouping);
-        sb.append(buildGroupingContainer(grouping, offset + TWO_SPACES));
-        sb.append(buildChildren(groupingSchemaNodeContainer, offset + TWO_SPACES, true));
-        return sb.toString();
+        buildGroupingContainer(grouping, offset + TWO_SPACES, out);
+        buildChildren(groupingSchemaNodeContainer, offset + TWO_SPACES, true, 1, null, out);
+        endEntry(out);
+    }
+
+
+
+    private static TreeIndex getIndex(Appendable out) {
+        return out instanceof TreeOutput ? ((TreeOutput) out).getIndex() : null;
+    }
+
+    private static void beginEntry(Appendable out, String... fields) {
+        TreeIndex index = getIndex(out);
+        if (index != null) {
+            index.begin(((TreeOutput) out).getOffset(), fields);
+        }
+    }
+
+    private static void endEntry(Appendable out) {
+        TreeIndex index = getIndex(out);
+        if (index != null) {
+            index.end(((TreeOutput) out).getOffset());
+        }
+    }
+
+    private void beginNode(Appendable out, YangStatement yangStatement) {
+        if (getIndex(out) == null) {
+            return;
+        }
+        String type = null;
+        if (yangStatement instanceof TypedDataNode) {
+            type = getType((TypedDataNode) yangStatement);
+        }
+        String features = null;
+        if (yangStatement instanceof IfFeatureSupport) {
+            features = getFeatures((IfFeatureSupport) yangStatement);
+            //strip " {" and "}?"
+            features = features.isEmpty() ? null : features.substring(2, features.length() - 2);
+        }
+        beginEntry(out, yangStatement.getYangKeyword().getLocalName(), yangStatement.getArgStr(),
+                getStatus(yangStatement), getFlags(yangStatement), getOpts(yangStatement), type, features);
     }
 
+    private static String getPathName(SchemaNode schemaNode) {
+        if (schemaNode.getArgStr() != null) {
+            return schemaNode.getArgStr();
+        }
+        //input and output
+        return schemaNode.getYangKeyword().getLocalName();
+    }
 
+    private static boolean matches(SchemaNode schemaNode, int depth, List<String[]> paths) {
+        String name = getPathName(schemaNode);
+        for (String[] path : paths) {
+            if (path.length >= depth && path[depth - 1].equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * get the tree paths which the children of schema node should match.
+     * @param schemaNode schema node which matches paths
+     * @param depth the depth of schema node
+     * @param paths the tree paths which the schema node matches
+     * @return tree paths, null if all children should be built
+     */
+    private static List<String[]> getChildPaths(SchemaNode schemaNode, int depth, List<String[]> paths) {
+        if (paths == null) {
+            return null;
+        }
+        String name = getPathName(schemaNode);
+        List<String[]> childPaths = new ArrayList<>();
+        for (String[] path : paths) {
+            if (path.length >= depth && path[depth - 1].equals(name)) {
+                if (path.length == depth) {
+                    //the whole subtree of the target node is built
+                    return null;
+                }
+                childPaths.add(path);
+            }
+        }
+        return childPaths;
+    }
+
+    /**
+     * select the nodes which match tree paths, the nodes which don't match are never visited.
+     * The uses are transparent when groupings are expanded.
+     * @param schemaNodes candidate nodes
+     * @param grouping whether the groupings are not expanded
+     * @param depth the depth of candidate nodes
+     * @param paths tree paths, null means all nodes are selected
+     * @return selected nodes
+     */
+    private static List<SchemaNode> selectNodes(List<? extends SchemaNode> schemaNodes, boolean grouping, int depth,
+                                                List<String[]> paths) {
+        List<SchemaNode> selected = new ArrayList<>();
+        if (paths == null) {
+            selected.addAll(schemaNodes);
+            return selected;
+        }
+        for (SchemaNode schemaNode : schemaNodes) {
+            if (!grouping && (schemaNode instanceof Uses)) {
+                selected.addAll(selectNodes(((Uses) schemaNode).getSchemaNodeChildren(), grouping, depth, paths));
+            } else if (matches(schemaNode, depth, paths)) {
+                selected.add(schemaNode);
+            }
+        }
+        return selected;
+    }
 
     private String getStatus(YangStatement yangStatement) {
         if (yangStatement instanceof Entity) {
@@ -592,10 +797,11 @@ public class YangTreeGenerator implements YangCompilerPlugin {
     public YangCompilerPluginParameter getParameter(String name, JsonElement value)
             throws YangCompilerException {
         if (!name.equals("output") && !name.equals("line-length")
-                && !name.equals("expand-grouping")) {
+                && !name.equals("expand-grouping") && !name.equals("tree-path") && !name.equals("tree-depth")
+                && !name.equals("tree-format")) {
             throw new YangCompilerException("unrecognized parameter:" + name);
         }
-        if (name.equals("output")) {
+        if (name.equals("output") || name.equals("tree-format")) {
             return YangCompilerPlugin.super.getParameter(name, value);
         }
         YangCompilerPluginParameter yangCompilerPluginParameter = new YangCompilerPluginParameter() {
@@ -614,6 +820,22 @@ public class YangTreeGenerator implements YangCompilerPlugin {
                 if (name.equals("expand-grouping")) {
                     return value.getAsBoolean();
                 }
+
+                if (name.equals("tree-depth")) {
+                    return value.getAsInt();
+                }
+
+                if (name.equals("tree-path")) {
+                    //an array of strings, so it's read back by a checked cast
+                    if (!value.isJsonArray()) {
+                        return new String[]{value.getAsString()};
+                    }
+                    String[] paths = new String[value.getAsJsonArray().size()];
+                    for (int i = 0; i < paths.length; i++) {
+                        paths[i] = value.getAsJsonArray().get(i).getAsString();
+                    }
+                    return paths;
+                }
                 return null;
             }
 
@@ -623,9 +845,27 @@ public class YangTreeGenerator implements YangCompilerPlugin {
 
     }
 
-    @Override
-    public void run(YangSchemaContext schemaContext, YangCompiler yangCompiler,
-                    List<YangCompilerPluginParameter> parameters) throws YangCompilerException {
+    /**
+     * parse a tree path, e.g. /if:interfaces/if:interface, the prefixes are ignored.
+     * @param path tree path
+     * @return the node names of path
+     */
+    private static String[] parseTreePath(String path) {
+        List<String> names = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            int pos = segment.indexOf(':');
+            names.add(pos == -1 ? segment : segment.substring(pos + 1));
+        }
+        return names.toArray(new String[0]);
+    }
+
+    private void parseParameters(List<YangCompilerPluginParameter> parameters) throws YangCompilerException {
+        treePaths = null;
+        treeDepth = 0;
+        indexed = false;
         for (YangCompilerPluginParameter parameter : parameters) {
             if (parameter.getName().equals("output")) {
                 output = (String) parameter.getValue();
@@ -633,23 +873,196 @@ public class YangTreeGenerator implements YangCompilerPlugin {
                 lineLength = (int) parameter.getValue();
             } else if (parameter.getName().equals("expand-grouping")) {
                 expandGrouping = (boolean) parameter.getValue();
+            } else if (parameter.getName().equals("tree-format")) {
+                String format = (String) parameter.getValue();
+                if (!format.equals("text") && !format.equals("indexed")) {
+                    throw new YangCompilerException("unsupported tree-format:" + format);
+                }
+                indexed = format.equals("indexed");
+            } else if (parameter.getName().equals("tree-depth")) {
+                treeDepth = (int) parameter.getValue();
+            } else if (parameter.getName().equals("tree-path")) {
+                treePaths = new ArrayList<>();
+                for (String path : (String[]) parameter.getValue()) {
+                    String[] names = parseTreePath(path);
+                    if (names.length == 0) {
+                        throw new YangCompilerException("invalid tree-path:" + path);
+                    }
+                    treePaths.add(names);
+                }
             }
         }
         if (output == null) {
             throw new YangCompilerException("missing mandatory parameter:output");
         }
-        File outputDir = new File(output);
-        if (!outputDir.exists()) {
-            outputDir.mkdirs();
+    }
+
+    private String getOptions() {
+        StringBuilder sb = new StringBuilder("version=" + VERSION + ",line-length=" + lineLength
+                + ",expand-grouping=" + expandGrouping);
+        if (treeDepth > 0) {
+            sb.append(",tree-depth=").append(treeDepth);
         }
+        if (indexed) {
+            sb.append(",tree-format=indexed");
+        }
+        if (treePaths != null) {
+            sb.append(",tree-path=");
+            for (String[] path : treePaths) {
+                sb.append('/').append(String.join("/", path)).append(';');
+            }
+        }
+        return sb.toString();
+    }
 
-        List<Module> modules = schemaContext.getModules();
-        for (Module module : modules) {
-            String yangTree = buildYangTree(module);
-            FileUtil.writeUtf8File(yangTree, new File(outputDir,
-                    module.getArgStr()
-                            + (module.getCurRevisionDate().isPresent() ? "@" + module.getCurRevisionDate().get() : "")
-                            + "_tree.txt"));
+    /**
+     * estimate the cost of building yang tree for a module by the size of its source.
+     *
+     * @param module module
+     * @return estimated size, 0 if unknown
+     */
+    private static long estimateSize(Module module) {
+        if (module.getElementPosition() == null || module.getElementPosition().getSource() == null) {
+            return 0;
         }
+        return new File(module.getElementPosition().getSource()).length();
+    }
+
+    private static String getIndexFileName(Module module) {
+        String treeFileName = getTreeFileName(module);
+        return treeFileName.substring(0, treeFileName.length() - ".txt".length()) + ".idx";
+    }
+
+    private static String getTreeFileName(Module module) {
+        return module.getArgStr()
+                + (module.getCurRevisionDate().isPresent() ? "@" + module.getCurRevisionDate().get() : "")
+                + "_tree.txt";
+    }
+
+    /**
+     * read the manifest of the previous run, it records the options and the fingerprint of every tree file.
+     *
+     * @param outputDir output directory
+     * @return the fingerprints of tree files of the previous run, empty if options are changed
+     */
+    private Map<String, String> readManifest(File outputDir) {
+        Map<String, String> fingerprints = new HashMap<>();
+        File manifestFile = new File(outputDir, MANIFEST);
+        if (!manifestFile.isFile()) {
+            return fingerprints;
+        }
+        try {
+            JsonObject manifest = JsonParser.parseString(FileUtil.readFile2String(manifestFile.getPath()))
+                    .getAsJsonObject();
+            if (manifest.get("options") == null || !manifest.get("options").getAsString().equals(getOptions())) {
+                return fingerprints;
+            }
+            for (Map.Entry<String, JsonElement> entry : manifest.getAsJsonObject("modules").entrySet()) {
+                fingerprints.put(entry.getKey(), entry.getValue().getAsString());
+            }
+        } catch (IOException | RuntimeException e) {
+            //a broken manifest, regenerate all tree files
+            fingerprints.clear();
+        }
+        return fingerprints;
+    }
+
+    @Override
+    public PluginCacheKey getCacheKey(YangSchemaContext schemaContext, YangCompiler yangCompiler,
+                                      List<YangCompilerPluginParameter> parameters) throws YangCompilerException {
+        parseParameters(parameters);
+        return new PluginCacheKey(VERSION)
+                .addComponent("options", getOptions())
+                .addComponent("schema", yangCompiler.getModuleFingerprints(schemaContext).getSchemaFingerprint())
+                .addOutput(output);
+    }
+
+    /**
+     * generate the tree files of modules. It's not a visitor plugin: the unchanged modules are skipped and
+     * every other module is rendered by its own task, and the augments, groupings and tree paths of a module
+     * are rendered by their own walks, none of which fits the single pre-order traversal of schema nodes.
+     */
+    @Override
+    public void run(YangSchemaContext schemaContext, YangCompiler yangCompiler,
+                    List<YangCompilerPluginParameter> parameters) throws YangCompilerException {
+        parseParameters(parameters);
+        //the fragments depend on options, they are never reused across runs
+        groupingFragments.clear();
+        OutputSink outputSink = yangCompiler.getOutputSink();
+        File outputDir = outputSink.resolve(new File(output));
+        //the tree files in an archive are always regenerated
+        Map<String, String> previous = outputSink.isArchive() ? new HashMap<>() : readManifest(outputDir);
+        ModuleFingerprints moduleFingerprints = yangCompiler.getModuleFingerprints(schemaContext);
+        JsonObject fingerprints = new JsonObject();
+        int skipped = 0;
+        List<Module> pending = new ArrayList<>();
+        Map<Module, Long> sizes = new IdentityHashMap<>();
+        for (Module module : schemaContext.getModules()) {
+            String fileName = getTreeFileName(module);
+            String fingerprint = moduleFingerprints.getModuleFingerprint(module);
+            fingerprints.addProperty(fileName, fingerprint);
+            File treeFile = new File(outputDir, fileName);
+            if (fingerprint.equals(previous.get(fileName)) && treeFile.isFile()
+                    && (!indexed || new File(outputDir, getIndexFileName(module)).isFile())) {
+                //the module and all modules which can change its tree are not changed
+                skipped++;
+                continue;
+            }
+            pending.add(module);
+            sizes.put(module, estimateSize(module));
+        }
+        //the largest modules are started first, so a big module doesn't become the tail of the build
+        pending.sort((left, right) -> Long.compare(sizes.get(right), sizes.get(left)));
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Module module : pending) {
+            File treeFile = new File(outputDir, getTreeFileName(module));
+            tasks.add(() -> {
+                //the index is built by the same traversal which writes the text tree
+                TreeIndex index = indexed ? new TreeIndex() : null;
+                //render the tree on the compute thread and stream it to the file on io executor in blocks,
+                //it's never held in memory as a whole
+                outputSink.writeNow(treeFile, out -> {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                    buildYangTree(module, index == null ? writer : new TreeOutput(writer, index));
+                    writer.flush();
+                });
+                if (index != null) {
+                    outputSink.writeNow(new File(outputDir, getIndexFileName(module)), index::write);
+                }
+                return null;
+            });
+        }
+        //one task per module on the shared compute executor, every task writes its own tree file,
+        //so the files are identical with the serial generation
+        List<Future<Void>> futures = yangCompiler.getComputeExecutor().invokeAll(tasks);
+        groupingFragments.clear();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new YangCompilerException("interrupted when building yang trees.");
+            } catch (ExecutionException e) {
+                throw new YangCompilerException("fail to build yang tree for module:"
+                        + pending.get(i).getArgStr() + " " + e.getCause().getMessage());
+            }
+        }
+        JsonObject manifest = new JsonObject();
+        manifest.addProperty("options", getOptions());
+        manifest.add("modules", fingerprints);
+        outputSink.write(new File(outputDir, MANIFEST), manifest.toString());
+        if (skipped > 0) {
+            logger.info(skipped + " tree files are up-to-date.");
+        }
+    }
+
+    @Override
+    public boolean requiresDocumentation() {
+        return false;
+    }
+
+    @Override
+    public boolean isIsolated() {
+        return true;
     }
 }
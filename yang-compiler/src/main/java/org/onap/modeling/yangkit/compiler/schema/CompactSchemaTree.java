@@ -0,0 +1,386 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler.schema;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.yangcentral.yangkit.base.YangBuiltinKeyword;
+import org.yangcentral.yangkit.common.api.QName;
+import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
+import org.yangcentral.yangkit.model.api.stmt.Container;
+import org.yangcentral.yangkit.model.api.stmt.Leaf;
+import org.yangcentral.yangkit.model.api.stmt.Module;
+import org.yangcentral.yangkit.model.api.stmt.SchemaDataNode;
+import org.yangcentral.yangkit.model.api.stmt.SchemaNode;
+import org.yangcentral.yangkit.model.api.stmt.SchemaNodeContainer;
+import org.yangcentral.yangkit.model.api.stmt.SubModule;
+import org.yangcentral.yangkit.model.api.stmt.TypedDataNode;
+import org.yangcentral.yangkit.model.api.stmt.VirtualSchemaNode;
+import org.yangcentral.yangkit.model.api.stmt.YangList;
+
+
+/**
+ * a compact read-only representation of the schema tree of a validated schema context.
+ * Every node is an int id, and the structure and attributes of nodes are stored in flat arrays,
+ * all strings are interned in a string table. The roots are the main modules of schema context,
+ * and -1 means no node. Besides the attributes of schema nodes, the flags tell whether a node is virtual
+ * (a virtual schema node, or a node without schema path, which is not a data node itself but its children are),
+ * whether the main module of node is a module of schema context(not an import-only module), and whether its
+ * keyword is defined by an extension. It can be traversed without any allocation, e.g.
+ * <pre>
+ *   for (int child = tree.getFirstChild(id); child != -1; child = tree.getNextSibling(child)) {
+ *       ...
+ *   }
+ * </pre>
+ */
+public class CompactSchemaTree {
+    public static final int FLAG_CONFIG = 1;
+    public static final int FLAG_MANDATORY = 1 << 1;
+    public static final int FLAG_ACTIVE = 1 << 2;
+    public static final int FLAG_DEVIATED = 1 << 3;
+    public static final int FLAG_PRESENCE = 1 << 4;
+    public static final int FLAG_KEY = 1 << 5;
+    public static final int FLAG_VIRTUAL = 1 << 6;
+    public static final int FLAG_IN_CONTEXT = 1 << 7;
+    public static final int FLAG_EXTENSION = 1 << 8;
+
+    private static final Set<QName> BUILTIN_KEYWORDS = new HashSet<>();
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size;
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+    private int[] keywords = new int[INITIAL_CAPACITY];
+    private int[] names = new int[INITIAL_CAPACITY];
+    private int[] modules = new int[INITIAL_CAPACITY];
+    private int[] flags = new int[INITIAL_CAPACITY];
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int firstRoot = -1;
+
+    private String[] strings = new String[INITIAL_CAPACITY];
+    private int stringSize;
+    private final Map<String, Integer> stringIds = new HashMap<>();
+
+    static {
+        for (YangBuiltinKeyword keyword : YangBuiltinKeyword.values()) {
+            BUILTIN_KEYWORDS.add(keyword.getQName());
+        }
+    }
+
+    private CompactSchemaTree() {
+    }
+
+    /**
+     * get the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * get the first root (main module), the other roots are its siblings.
+     *
+     * @return node id
+     */
+    public int getFirstRoot() {
+        return firstRoot;
+    }
+
+    public int getParent(int id) {
+        return parents[id];
+    }
+
+    public int getFirstChild(int id) {
+        return firstChildren[id];
+    }
+
+    public int getNextSibling(int id) {
+        return nextSiblings[id];
+    }
+
+    /**
+     * get the id of keyword (local name of yang keyword) in string table.
+     *
+     * @param id node id
+     * @return string id
+     */
+    public int getKeywordId(int id) {
+        return keywords[id];
+    }
+
+    public String getKeyword(int id) {
+        return strings[keywords[id]];
+    }
+
+    /**
+     * get the id of name (argument of statement) in string table.
+     *
+     * @param id node id
+     * @return string id
+     */
+    public int getNameId(int id) {
+        return names[id];
+    }
+
+    public String getName(int id) {
+        return strings[names[id]];
+    }
+
+    /**
+     * get the id of the name of the main module which the node belongs to in string table.
+     *
+     * @param id node id
+     * @return string id
+     */
+    public int getModuleId(int id) {
+        return modules[id];
+    }
+
+    public String getModuleName(int id) {
+        return strings[modules[id]];
+    }
+
+    /**
+     * get the id of the type (argument of type statement) of a typed data node in string table.
+     *
+     * @param id node id
+     * @return string id, -1 if the node is not a typed data node
+     */
+    public int getTypeId(int id) {
+        return types[id];
+    }
+
+    public String getType(int id) {
+        return types[id] == -1 ? null : strings[types[id]];
+    }
+
+    public int getFlags(int id) {
+        return flags[id];
+    }
+
+    public boolean hasFlag(int id, int flag) {
+        return (flags[id] & flag) != 0;
+    }
+
+    /**
+     * get string from string table.
+     *
+     * @param stringId string id
+     * @return string
+     */
+    public String getString(int stringId) {
+        return strings[stringId];
+    }
+
+    /**
+     * get the id of a string in string table, it can be used to compare keywords or names by int.
+     *
+     * @param str string
+     * @return string id, -1 if the string is not in string table
+     */
+    public int getStringId(String str) {
+        Integer stringId = stringIds.get(str);
+        return stringId == null ? -1 : stringId;
+    }
+
+    /**
+     * append the path (e.g. /container/list/leaf) of a node to string builder, the root is not included.
+     *
+     * @param id node id
+     * @param sb string builder
+     */
+    public void appendPath(int id, StringBuilder sb) {
+        int parent = parents[id];
+        if (parent == -1) {
+            return;
+        }
+        appendPath(parent, sb);
+        sb.append('/');
+        sb.append(strings[names[id]]);
+    }
+
+    private int intern(String str) {
+        if (str == null) {
+            str = "";
+        }
+        Integer stringId = stringIds.get(str);
+        if (stringId != null) {
+            return stringId;
+        }
+        if (stringSize == strings.length) {
+            strings = Arrays.copyOf(strings, stringSize * 2);
+        }
+        strings[stringSize] = str;
+        stringIds.put(str, stringSize);
+        return stringSize++;
+    }
+
+    private void ensureCapacity() {
+        if (size < parents.length) {
+            return;
+        }
+        int capacity = parents.length * 2;
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        keywords = Arrays.copyOf(keywords, capacity);
+        names = Arrays.copyOf(names, capacity);
+        modules = Arrays.copyOf(modules, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+
+    private int addNode(int parent, int lastSibling, String keyword, String name, String module, int nodeFlags,
+                        String type) {
+        ensureCapacity();
+        int id = size++;
+        parents[id] = parent;
+        firstChildren[id] = -1;
+        nextSiblings[id] = -1;
+        keywords[id] = intern(keyword);
+        names[id] = intern(name);
+        modules[id] = intern(module);
+        flags[id] = nodeFlags;
+        types[id] = type == null ? -1 : intern(type);
+        if (lastSibling != -1) {
+            nextSiblings[lastSibling] = id;
+        } else if (parent != -1) {
+            firstChildren[parent] = id;
+        }
+        return id;
+    }
+
+    private static int getFlags(SchemaNode schemaNode, Set<Module> contextModules) {
+        int nodeFlags = 0;
+        if (schemaNode instanceof VirtualSchemaNode || schemaNode.getSchemaPath() == null) {
+            nodeFlags |= FLAG_VIRTUAL;
+        }
+        if (contextModules.contains(schemaNode.getContext().getCurModule().getMainModule())) {
+            nodeFlags |= FLAG_IN_CONTEXT;
+        }
+        if (!BUILTIN_KEYWORDS.contains(schemaNode.getYangKeyword())) {
+            nodeFlags |= FLAG_EXTENSION;
+        }
+        if (schemaNode.isConfig()) {
+            nodeFlags |= FLAG_CONFIG;
+        }
+        if (schemaNode.isActive()) {
+            nodeFlags |= FLAG_ACTIVE;
+        }
+        if (schemaNode.isDeviated()) {
+            nodeFlags |= FLAG_DEVIATED;
+        }
+        if (schemaNode instanceof SchemaDataNode && ((SchemaDataNode) schemaNode).isMandatory()) {
+            nodeFlags |= FLAG_MANDATORY;
+        }
+        if (schemaNode instanceof Container && ((Container) schemaNode).isPresence()) {
+            nodeFlags |= FLAG_PRESENCE;
+        }
+        if (schemaNode instanceof Leaf) {
+            SchemaNodeContainer parent = ((Leaf) schemaNode).getClosestAncestorNode();
+            if (parent instanceof YangList) {
+                YangList list = (YangList) parent;
+                if (list.getKey() != null && list.getKey().getKeyNode(((Leaf) schemaNode).getIdentifier()) != null) {
+                    nodeFlags |= FLAG_KEY;
+                }
+            }
+        }
+        return nodeFlags;
+    }
+
+    private static class Frame {
+        private final Iterator<SchemaNode> children;
+        private final int id;
+        private int lastChild = -1;
+
+        Frame(SchemaNodeContainer container, int id) {
+            this.children = container.getSchemaNodeChildren().iterator();
+            this.id = id;
+        }
+    }
+
+    /**
+     * build the compact schema tree from a validated yang schema context.
+     *
+     * @param schemaContext yang schema context
+     * @return compact schema tree
+     */
+    public static CompactSchemaTree build(YangSchemaContext schemaContext) {
+        CompactSchemaTree tree = new CompactSchemaTree();
+        //the modules are compared by identity
+        Set<Module> contextModules = Collections.newSetFromMap(new IdentityHashMap<>());
+        contextModules.addAll(schemaContext.getModules());
+        int lastRoot = -1;
+        Deque<Frame> stack = new ArrayDeque<>();
+        for (Module module : schemaContext.getModules()) {
+            if (module instanceof SubModule) {
+                //the schema nodes of sub modules are children of main module
+                continue;
+            }
+            int root = tree.addNode(-1, lastRoot, module.getYangKeyword().getLocalName(), module.getArgStr(),
+                    module.getArgStr(), FLAG_IN_CONTEXT, null);
+            if (lastRoot == -1) {
+                tree.firstRoot = root;
+            }
+            lastRoot = root;
+            stack.push(new Frame(module, root));
+            while (!stack.isEmpty()) {
+                Frame frame = stack.peek();
+                if (!frame.children.hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                SchemaNode child = frame.children.next();
+                String type = child instanceof TypedDataNode ? ((TypedDataNode) child).getType().getArgStr() : null;
+                int id = tree.addNode(frame.id, frame.lastChild, child.getYangKeyword().getLocalName(),
+                        child.getArgStr(), child.getContext().getCurModule().getMainModule().getArgStr(),
+                        getFlags(child, contextModules), type);
+                frame.lastChild = id;
+                if (child instanceof SchemaNodeContainer) {
+                    stack.push(new Frame((SchemaNodeContainer) child, id));
+                }
+            }
+        }
+        tree.trim();
+        return tree;
+    }
+
+    private void trim() {
+        parents = Arrays.copyOf(parents, size);
+        firstChildren = Arrays.copyOf(firstChildren, size);
+        nextSiblings = Arrays.copyOf(nextSiblings, size);
+        keywords = Arrays.copyOf(keywords, size);
+        names = Arrays.copyOf(names, size);
+        modules = Arrays.copyOf(modules, size);
+        flags = Arrays.copyOf(flags, size);
+        types = Arrays.copyOf(types, size);
+        strings = Arrays.copyOf(strings, stringSize);
+    }
+}
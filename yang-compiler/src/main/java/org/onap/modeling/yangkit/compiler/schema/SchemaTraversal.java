@@ -0,0 +1,202 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler.schema;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.onap.modeling.yangkit.compiler.plugin.YangSchemaVisitor;
+import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
+import org.yangcentral.yangkit.model.api.stmt.Module;
+import org.yangcentral.yangkit.model.api.stmt.SchemaNode;
+import org.yangcentral.yangkit.model.api.stmt.SchemaNodeContainer;
+import org.yangcentral.yangkit.model.api.stmt.SubModule;
+
+
+/**
+ * traverse the schema tree of a validated schema context once, and dispatch the events to all visitors.
+ * Every visitor can skip the children of a schema node independently, and a subtree is traversed only if
+ * at least one visitor visits it. If all visitors are concurrent, the main modules are traversed in parallel
+ * on the given executor, at most two modules per worker are in flight.
+ */
+public final class SchemaTraversal {
+    private static final int DESCEND = Integer.MAX_VALUE;
+
+    private SchemaTraversal() {
+    }
+
+    private static class Frame {
+        private final SchemaNode node;
+        private final Iterator<SchemaNode> children;
+        private final int depth;
+
+        Frame(SchemaNode node, SchemaNodeContainer container, int depth) {
+            this.node = node;
+            this.children = container.getSchemaNodeChildren().iterator();
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * traverse the schema tree of schema context in the order of modules.
+     *
+     * @param schemaContext validated yang schema context
+     * @param visitors      visitors
+     */
+    public static void traverse(YangSchemaContext schemaContext, List<YangSchemaVisitor> visitors) {
+        traverse(schemaContext, visitors, null);
+    }
+
+    /**
+     * traverse the schema tree of schema context, the main modules are traversed in parallel on executor
+     * if all visitors are concurrent. The first error of modules is thrown after all modules in flight
+     * are finished, and no more modules are traversed after it.
+     *
+     * @param schemaContext validated yang schema context
+     * @param visitors      visitors
+     * @param executor      the executor of modules, null means the modules are traversed by current thread
+     */
+    public static void traverse(YangSchemaContext schemaContext, List<YangSchemaVisitor> visitors,
+                                ForkJoinPool executor) {
+        if (visitors.isEmpty()) {
+            return;
+        }
+        YangSchemaVisitor[] visitorArray = visitors.toArray(new YangSchemaVisitor[0]);
+        boolean concurrent = executor != null && executor.getParallelism() > 1;
+        for (YangSchemaVisitor visitor : visitorArray) {
+            concurrent &= visitor.isConcurrent();
+        }
+        if (!concurrent) {
+            //the state of traversal is reused by all modules
+            int[] skipFrom = new int[visitorArray.length];
+            Deque<Frame> stack = new ArrayDeque<>();
+            for (Module module : schemaContext.getModules()) {
+                if (module instanceof SubModule) {
+                    //the schema nodes of sub modules are children of main module
+                    continue;
+                }
+                traverse(module, visitorArray, skipFrom, stack);
+            }
+            return;
+        }
+        int window = executor.getParallelism() * 2;
+        Deque<ForkJoinTask<?>> tasks = new ArrayDeque<>();
+        RuntimeException error = null;
+        for (Module module : schemaContext.getModules()) {
+            if (module instanceof SubModule) {
+                continue;
+            }
+            if (tasks.size() >= window) {
+                error = join(tasks.poll(), error);
+                if (error != null) {
+                    break;
+                }
+            }
+            tasks.add(executor.submit(() -> traverse(module, visitorArray, new int[visitorArray.length],
+                    new ArrayDeque<>())));
+        }
+        while (!tasks.isEmpty()) {
+            error = join(tasks.poll(), error);
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static RuntimeException join(ForkJoinTask<?> task, RuntimeException error) {
+        try {
+            task.join();
+        } catch (RuntimeException e) {
+            if (error == null) {
+                return e;
+            }
+        }
+        return error;
+    }
+
+    /**
+     * traverse the schema tree of a main module. The leaveModule of every visitor whose enterModule is called
+     * is called even if the traversal fails, so the visitors can release the state of module.
+     *
+     * @param module   main module
+     * @param visitors visitors
+     * @param skipFrom the depth from which a visitor skips the children
+     * @param stack    empty stack
+     */
+    private static void traverse(Module module, YangSchemaVisitor[] visitors, int[] skipFrom, Deque<Frame> stack) {
+        //DESCEND means a visitor visits all nodes of current path
+        Arrays.fill(skipFrom, DESCEND);
+        stack.clear();
+        int entered = 0;
+        try {
+            for (YangSchemaVisitor visitor : visitors) {
+                entered++;
+                visitor.enterModule(module);
+            }
+            stack.push(new Frame(null, module, 0));
+            while (!stack.isEmpty()) {
+                Frame frame = stack.peek();
+                if (!frame.children.hasNext()) {
+                    stack.pop();
+                    if (frame.node != null) {
+                        leave(frame.node, frame.depth, visitors, skipFrom);
+                    }
+                    continue;
+                }
+                SchemaNode child = frame.children.next();
+                int depth = frame.depth + 1;
+                boolean descend = false;
+                for (int i = 0; i < visitors.length; i++) {
+                    if (depth > skipFrom[i]) {
+                        continue;
+                    }
+                    if (visitors[i].enterNode(child)) {
+                        descend = true;
+                    } else {
+                        skipFrom[i] = depth;
+                    }
+                }
+                if (descend && child instanceof SchemaNodeContainer) {
+                    stack.push(new Frame(child, (SchemaNodeContainer) child, depth));
+                } else {
+                    leave(child, depth, visitors, skipFrom);
+                }
+            }
+        } finally {
+            for (int i = 0; i < entered; i++) {
+                visitors[i].leaveModule(module);
+            }
+        }
+    }
+
+    private static void leave(SchemaNode node, int depth, YangSchemaVisitor[] visitors, int[] skipFrom) {
+        for (int i = 0; i < visitors.length; i++) {
+            if (depth > skipFrom[i]) {
+                continue;
+            }
+            visitors[i].leaveNode(node);
+            if (skipFrom[i] == depth) {
+                skipFrom[i] = DESCEND;
+            }
+        }
+    }
+}
@@ -36,7 +36,10 @@ import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.KeyManager;
@@ -51,10 +54,14 @@ import org.onap.modeling.yangkit.compiler.YangCompilerException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yangcentral.yangkit.base.YangBuiltinKeyword;
+import org.yangcentral.yangkit.base.YangElement;
 
 
 import org.yangcentral.yangkit.model.api.schema.YangSchemaContext;
+import org.yangcentral.yangkit.model.api.stmt.Description;
+import org.yangcentral.yangkit.model.api.stmt.Entity;
 import org.yangcentral.yangkit.model.api.stmt.Module;
+import org.yangcentral.yangkit.model.api.stmt.Reference;
 import org.yangcentral.yangkit.model.api.stmt.SubModule;
 import org.yangcentral.yangkit.model.api.stmt.YangStatement;
 
@@ -459,4 +466,52 @@ public class YangCompilerUtil {
         return schemaContext;
 
     }
+
+    /**
+     * release the documentation text (description and reference statements) of a statement and all of its
+     * descendant statements.
+     * @param statement yang statement
+     * @return the number of released statements
+     */
+    public static int releaseDocumentation(YangStatement statement) {
+        int released = 0;
+        Deque<YangStatement> stack = new ArrayDeque<>();
+        stack.push(statement);
+        while (!stack.isEmpty()) {
+            YangStatement current = stack.pop();
+            boolean documented = false;
+            Iterator<YangElement> iterator = current.getSubElements().iterator();
+            while (iterator.hasNext()) {
+                YangElement element = iterator.next();
+                if ((element instanceof Description) || (element instanceof Reference)) {
+                    iterator.remove();
+                    documented = true;
+                    released++;
+                } else if (element instanceof YangStatement) {
+                    stack.push((YangStatement) element);
+                }
+            }
+            if (documented && (current instanceof Entity)) {
+                Entity entity = (Entity) current;
+                entity.setDescription(null);
+                entity.setReference(null);
+            }
+        }
+        return released;
+    }
+
+    /**
+     * release the raw parse result of a module from schema context.
+     * @param schemaContext yang schema context
+     * @param module module
+     * @return true if the parse result is released
+     */
+    public static boolean releaseParseResult(YangSchemaContext schemaContext, Module module) {
+        String source = module.getElementPosition().getSource();
+        try {
+            return schemaContext.getParseResult().remove(source) != null;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
 }
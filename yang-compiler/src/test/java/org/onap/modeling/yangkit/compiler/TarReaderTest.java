@@ -0,0 +1,299 @@
+/*
+Copyright 2023 Huawei Technologies
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package org.onap.modeling.yangkit.compiler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+
+/**
+ * the round-trip tests of tar reader, the fixture archives are built in memory block by block.
+ */
+public class TarReaderTest {
+    private static final int BLOCK_SIZE = 512;
+
+    /**
+     * the builder of a fixture archive.
+     */
+    private static class TarBuilder {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        TarBuilder file(String name, byte[] content) {
+            return entry(name, '0', content);
+        }
+
+        TarBuilder entry(String name, char type, byte[] content) {
+            byte[] header = header(name, type);
+            setOctal(header, 124, 12, content.length);
+            return write(header, content);
+        }
+
+        /**
+         * add a regular file whose size is encoded in gnu base-256.
+         */
+        TarBuilder base256File(String name, byte[] content) {
+            byte[] header = header(name, '0');
+            header[124] = (byte) 0x80;
+            long size = content.length;
+            for (int i = 135; i > 124; i--) {
+                header[i] = (byte) (size & 0xff);
+                size >>>= 8;
+            }
+            return write(header, content);
+        }
+
+        /**
+         * add a regular file whose name is split into the prefix and name of ustar header.
+         */
+        TarBuilder prefixedFile(String prefix, String name, byte[] content) {
+            byte[] header = header(name, '0');
+            byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+            System.arraycopy(prefixBytes, 0, header, 345, prefixBytes.length);
+            setOctal(header, 124, 12, content.length);
+            return write(header, content);
+        }
+
+        TarBuilder gnuLongName(String name) {
+            return entry("././@LongLink", 'L', (name + "\0").getBytes(StandardCharsets.UTF_8));
+        }
+
+        TarBuilder paxHeader(String... records) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            for (String record : records) {
+                byte[] bytes = (" " + record + "\n").getBytes(StandardCharsets.UTF_8);
+                //the length includes its own digits
+                int length = bytes.length + 1;
+                while (length != bytes.length + String.valueOf(length).length()) {
+                    length = bytes.length + String.valueOf(length).length();
+                }
+                byte[] prefix = String.valueOf(length).getBytes(StandardCharsets.UTF_8);
+                content.write(prefix, 0, prefix.length);
+                content.write(bytes, 0, bytes.length);
+            }
+            return entry("PaxHeaders/entry", 'x', content.toByteArray());
+        }
+
+        byte[] build() {
+            byte[] end = new byte[BLOCK_SIZE * 2];
+            out.write(end, 0, end.length);
+            return out.toByteArray();
+        }
+
+        byte[] buildWithoutEnd() {
+            return out.toByteArray();
+        }
+
+        private TarBuilder write(byte[] header, byte[] content) {
+            setChecksum(header);
+            out.write(header, 0, header.length);
+            out.write(content, 0, content.length);
+            int padding = (BLOCK_SIZE - content.length % BLOCK_SIZE) % BLOCK_SIZE;
+            out.write(new byte[padding], 0, padding);
+            return this;
+        }
+
+        private static byte[] header(String name, char type) {
+            byte[] header = new byte[BLOCK_SIZE];
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            System.arraycopy(nameBytes, 0, header, 0, Math.min(nameBytes.length, 100));
+            setOctal(header, 100, 8, 0644);
+            setOctal(header, 108, 8, 0);
+            setOctal(header, 116, 8, 0);
+            setOctal(header, 136, 12, 0);
+            header[156] = (byte) type;
+            System.arraycopy("ustar\0".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 6);
+            header[263] = '0';
+            header[264] = '0';
+            return header;
+        }
+
+        private static void setOctal(byte[] header, int offset, int length, long value) {
+            String octal = Long.toOctalString(value);
+            StringBuilder sb = new StringBuilder();
+            for (int i = octal.length(); i < length - 1; i++) {
+                sb.append('0');
+            }
+            sb.append(octal);
+            byte[] bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(bytes, 0, header, offset, bytes.length);
+            header[offset + length - 1] = 0;
+        }
+
+        private static void setChecksum(byte[] header) {
+            Arrays.fill(header, 148, 156, (byte) ' ');
+            long sum = 0;
+            for (byte b : header) {
+                sum += b & 0xff;
+            }
+            setOctal(header, 148, 7, sum);
+            header[155] = ' ';
+        }
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        return content;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[100];
+        int length;
+        while ((length = in.read(buffer)) != -1) {
+            out.write(buffer, 0, length);
+        }
+        return out.toByteArray();
+    }
+
+    private static TarReader reader(byte[] archive) {
+        return new TarReader(new ByteArrayInputStream(archive));
+    }
+
+    @Test
+    public void readsEntriesWithPadding() throws IOException {
+        //the sizes cover no padding, a partial block and one byte over a block
+        byte[] first = content(5);
+        byte[] second = content(BLOCK_SIZE);
+        byte[] third = content(BLOCK_SIZE + 1);
+        byte[] empty = new byte[0];
+        TarReader tarReader = reader(new TarBuilder().file("a.yang", first).file("dir/b.yang", second)
+                .file("c.yin", third).file("d.yang", empty).build());
+        assertEquals("a.yang", tarReader.nextEntry());
+        assertArrayEquals(first, readAll(tarReader.getEntryStream()));
+        assertEquals("dir/b.yang", tarReader.nextEntry());
+        assertArrayEquals(second, readAll(tarReader.getEntryStream()));
+        assertEquals("c.yin", tarReader.nextEntry());
+        assertArrayEquals(third, readAll(tarReader.getEntryStream()));
+        assertEquals("d.yang", tarReader.nextEntry());
+        assertArrayEquals(empty, readAll(tarReader.getEntryStream()));
+        assertNull(tarReader.nextEntry());
+    }
+
+    @Test
+    public void skipsUnreadAndPartiallyReadEntries() throws IOException {
+        byte[] last = content(700);
+        TarReader tarReader = reader(new TarBuilder().file("a.yang", content(1000))
+                .file("b.yang", content(300)).file("c.yang", last).build());
+        assertEquals("a.yang", tarReader.nextEntry());
+        assertEquals("b.yang", tarReader.nextEntry());
+        assertEquals('a', tarReader.getEntryStream().read());
+        assertEquals("c.yang", tarReader.nextEntry());
+        assertArrayEquals(last, readAll(tarReader.getEntryStream()));
+        assertNull(tarReader.nextEntry());
+    }
+
+    @Test
+    public void readsGnuBase256Size() throws IOException {
+        byte[] large = content(3 * BLOCK_SIZE + 17);
+        byte[] next = content(3);
+        TarReader tarReader = reader(new TarBuilder().base256File("large.yang", large).file("next.yang", next)
+                .build());
+        assertEquals("large.yang", tarReader.nextEntry());
+        assertArrayEquals(large, readAll(tarReader.getEntryStream()));
+        assertEquals("next.yang", tarReader.nextEntry());
+        assertArrayEquals(next, readAll(tarReader.getEntryStream()));
+        assertNull(tarReader.nextEntry());
+    }
+
+    @Test
+    public void readsGnuLongName() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 200) {
+            sb.append("very-long-directory/");
+        }
+        String longName = sb.append("module.yang").toString();
+        byte[] body = content(10);
+        TarReader tarReader = reader(new TarBuilder().gnuLongName(longName).file(longName, body)
+                .file("short.yang", body).build());
+        assertEquals(longName, tarReader.nextEntry());
+        assertArrayEquals(body, readAll(tarReader.getEntryStream()));
+        //the long name only applies to the next entry
+        assertEquals("short.yang", tarReader.nextEntry());
+        assertNull(tarReader.nextEntry());
+    }
+
+    @Test
+    public void readsPaxPath() throws IOException {
+        //the non-ascii characters make the length of record in bytes differ from its length in chars
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 150) {
+            sb.append("r\u00e9pertoire/");
+        }
+        String longName = sb.append("mod\u00e8le.yang").toString();
+        byte[] body = content(BLOCK_SIZE * 2);
+        TarReader tarReader = reader(new TarBuilder().paxHeader("mtime=1672531200.5", "path=" + longName)
+                .file("truncated.yang", body).file("short.yang", body).build());
+        assertEquals(longName, tarReader.nextEntry());
+        assertArrayEquals(body, readAll(tarReader.getEntryStream()));
+        assertEquals("short.yang", tarReader.nextEntry());
+        assertNull(tarReader.nextEntry());
+    }
+
+    @Test
+    public void readsUstarPrefix() throws IOException {
+        TarReader tarReader = reader(new TarBuilder().prefixedFile("a/b/c", "module.yang", content(1)).build());
+        assertEquals("a/b/c/module.yang", tarReader.nextEntry());
+        assertNull(tarReader.nextEntry());
+    }
+
+    @Test
+    public void skipsEntriesWhichAreNotRegularFiles() throws IOException {
+        byte[] body = content(20);
+        TarReader tarReader = reader(new TarBuilder().entry("dir/", '5', new byte[0])
+                .entry("link.yang", '2', new byte[0]).entry("global", 'g', content(30))
+                .file("dir/module.yang", body).build());
+        assertEquals("dir/module.yang", tarReader.nextEntry());
+        assertArrayEquals(body, readAll(tarReader.getEntryStream()));
+        assertNull(tarReader.nextEntry());
+    }
+
+    @Test
+    public void endsWithoutEndOfArchiveBlocks() throws IOException {
+        TarReader tarReader = reader(new TarBuilder().file("a.yang", content(10)).buildWithoutEnd());
+        assertEquals("a.yang", tarReader.nextEntry());
+        assertNull(tarReader.nextEntry());
+    }
+
+    @Test
+    public void failsOnTruncatedEntry() throws IOException {
+        byte[] archive = new TarBuilder().file("a.yang", content(1000)).file("b.yang", content(10))
+                .buildWithoutEnd();
+        TarReader tarReader = reader(Arrays.copyOf(archive, BLOCK_SIZE + 100));
+        assertEquals("a.yang", tarReader.nextEntry());
+        try {
+            tarReader.nextEntry();
+            fail("the truncated entry is not detected");
+        } catch (EOFException e) {
+            //expected
+        }
+    }
+}